@@ -33,6 +33,16 @@ public class Coxswain extends Application {
 		@Override
 		public void run() {
 			gym.defaults();
+
+			gym.recover();
+
+			gym.migrateSnapshots();
+
+			gym.backfillStatistics();
+
+			gym.migrateRollups();
+
+			new Retention(Coxswain.this).run();
 		}
 	}
 }
@@ -16,11 +16,17 @@
 package svenmeier.coxswain;
 
 import android.content.Context;
+import android.database.sqlite.SQLiteException;
 import android.location.Location;
 import android.location.LocationManager;
+import android.util.Log;
+import android.util.LruCache;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import propoid.core.Propoid;
 import propoid.db.LookupException;
@@ -31,11 +37,19 @@ import propoid.db.Repository;
 import propoid.db.Transaction;
 import propoid.db.Where;
 import propoid.db.cascading.DefaultCascading;
+import propoid.util.content.Preference;
 import svenmeier.coxswain.gym.Difficulty;
+import svenmeier.coxswain.gym.Journal;
 import svenmeier.coxswain.gym.Measurement;
+import svenmeier.coxswain.gym.Plan;
 import svenmeier.coxswain.gym.Program;
+import svenmeier.coxswain.gym.Rollup;
 import svenmeier.coxswain.gym.Segment;
 import svenmeier.coxswain.gym.Snapshot;
+import svenmeier.coxswain.gym.SnapshotChunk;
+import svenmeier.coxswain.gym.SnapshotSeries;
+import svenmeier.coxswain.gym.Statistics;
+import svenmeier.coxswain.gym.Stroke;
 import svenmeier.coxswain.gym.Workout;
 import svenmeier.coxswain.io.Export;
 
@@ -46,6 +60,33 @@ import static propoid.db.Where.lessThan;
 
 public class Gym {
 
+    /**
+     * The progress changed to another segment, or the program finished.
+     */
+    public static final int PROGRESS = 1 << 8;
+
+    /**
+     * The selected program changed.
+     */
+    public static final int PROGRAM = 1 << 9;
+
+    /**
+     * The pace workout changed.
+     */
+    public static final int PACE = 1 << 10;
+
+    /**
+     * Everything changed, i.e. all fields of the measurement, progress, program and pace.
+     */
+    public static final int ALL = Measurement.ALL | PROGRESS | PROGRAM | PACE;
+
+    private static final String DATABASE = "gym";
+
+    /**
+     * Bytes of snapshots to cache, i.e. several hours of workouts.
+     */
+    private static final int SERIES_CACHE_SIZE = 2 * 1024 * 1024;
+
     private static Gym instance;
 
     private Context context;
@@ -54,11 +95,45 @@ public class Gym {
 
     private List<Listener> listeners = new ArrayList<>();
 
+    private WriteBehind writeBehind;
+
+    /**
+     * Decoded snapshots by workout, shared by all callers.
+     */
+    private final LruCache<Long, SnapshotSeries> seriesCache = new LruCache<Long, SnapshotSeries>(SERIES_CACHE_SIZE) {
+        @Override
+        protected int sizeOf(Long key, SnapshotSeries series) {
+            return series.getByteSize();
+        }
+    };
+
+    /**
+     * Count of invalidations of {@link #seriesCache}, guarded by the cache.
+     */
+    private int invalidations;
+
+    private Journal journal;
+
+    /**
+     * Chunk of snapshots currently recorded.
+     */
+    private SnapshotChunk chunk;
+
+    /**
+     * Statistics of the current workout.
+     */
+    private Statistics statistics;
+
     /**
      * The selected program.
      */
     public Program program;
 
+    /**
+     * Plan compiled from the selected program.
+     */
+    public Plan plan;
+
 	/**
      * Optional pace workout.
      */
@@ -67,7 +142,7 @@ public class Gym {
 	/**
      * The current workout.
      */
-    public Workout current;
+    public volatile Workout current;
 
     /**
      * The last measurement.
@@ -83,7 +158,11 @@ public class Gym {
 
         this.context = context;
 
-        repository = new Repository(context, "gym");
+        repository = new Repository(context, DATABASE);
+
+        writeBehind = new WriteBehind(repository);
+
+        journal = new Journal(new File(context.getFilesDir(), "journal"));
 
         ((DefaultCascading) repository.cascading).setCascaded(new Program().segments);
 
@@ -91,6 +170,12 @@ public class Gym {
         repository.index(workoutIndex, false, Order.descending(workoutIndex.start));
         Snapshot snapshotIndex = new Snapshot();
         repository.index(snapshotIndex, false, Order.ascending(snapshotIndex.workout));
+        SnapshotChunk chunkIndex = new SnapshotChunk();
+        repository.index(chunkIndex, false, Order.ascending(chunkIndex.workout));
+        Stroke strokeIndex = new Stroke();
+        repository.index(strokeIndex, false, Order.ascending(strokeIndex.workout));
+        Rollup rollupIndex = new Rollup();
+        repository.index(rollupIndex, false, Order.ascending(rollupIndex.period), Order.ascending(rollupIndex.start));
     }
 
     public void defaults() {
@@ -165,13 +250,13 @@ public class Gym {
                 workout.program.set(repository.query(example, equal(example.name, programName)).first());
                 repository.merge(workout);
 
-                for (Snapshot snapshot : snapshots) {
-                    snapshot.workout.set(workout);
-
-                    repository.merge(snapshot);
+                for (SnapshotChunk chunk : SnapshotChunk.split(workout, snapshots)) {
+                    repository.insert(chunk);
                 }
             }
         });
+
+        invalidate(workout);
     }
 
     public void mergeProgram(Program program) {
@@ -199,9 +284,21 @@ public class Gym {
 
     public void delete(Propoid propoid) {
         if (propoid instanceof Workout) {
+            if (((Workout) propoid).evaluate.get() && isCurrent((Workout) propoid) == false) {
+                rollup((Workout) propoid, -1);
+            }
+
+            invalidate((Workout) propoid);
+
             // delete all snapshots of workout
             Snapshot prototype = new Snapshot();
             repository.query(prototype, equal(prototype.workout, (Workout) propoid)).delete();
+            SnapshotChunk chunkPrototype = new SnapshotChunk();
+            repository.query(chunkPrototype, equal(chunkPrototype.workout, (Workout) propoid)).delete();
+
+            // and all strokes
+            Stroke strokePrototype = new Stroke();
+            repository.query(strokePrototype, equal(strokePrototype.workout, (Workout) propoid)).delete();
         }
 
         repository.delete(propoid);
@@ -216,32 +313,65 @@ public class Gym {
 
     public void mergeWorkout(Workout workout) {
         repository.merge(workout);
+
+        invalidate(workout);
     }
 
-    public void deselect() {
-        if (current != null) {
-            Export.start(context, current);
+    /**
+     * Change whether a workout is evaluated in performance.
+     */
+    public void evaluate(Workout workout, boolean evaluate) {
+        if (workout.evaluate.get() == evaluate) {
+            return;
+        }
+
+        workout.evaluate.set(evaluate);
+        repository.merge(workout);
+
+        if (isCurrent(workout) == false) {
+            rollup(workout, evaluate ? 1 : -1);
         }
+    }
+
+    public void deselect() {
+        final Workout workout = current;
+
+        // export when written
+        finishCurrent(new Runnable() {
+            @Override
+            public void run() {
+                // the written instance, the current one is never written itself
+                Workout prototype = new Workout();
+                Workout written = repository.query(prototype, equal(prototype.start, workout.start.get())).first();
+                if (written != null) {
+                    Export.start(context, written);
+                }
+            }
+        });
 
         this.pace = null;
         this.program = null;
+        this.plan = null;
 
         this.measurement = new Measurement();
         this.current = null;
         this.progress = null;
 
-        fireChanged();
+        fireChanged(ALL);
     }
 
     public void repeat(Program program) {
+        finishCurrent(null);
+
         this.pace = null;
         this.program = program;
+        this.plan = new Plan(program);
 
         this.measurement = new Measurement();
         this.current = null;
         this.progress = null;
 
-        fireChanged();
+        fireChanged(ALL);
     }
 
     public void repeat(Workout pace) {
@@ -254,33 +384,40 @@ public class Gym {
             return;
         }
 
+        finishCurrent(null);
+
         this.pace = pace;
         this.program = program;
+        this.plan = new Plan(program);
 
         this.measurement = new Measurement();
         this.current = null;
         this.progress = null;
 
-        fireChanged();
+        fireChanged(ALL);
     }
 
     public void challenge(Workout pace) {
+        finishCurrent(null);
+
         this.pace = pace;
         this.program = Program.meters(context.getString(R.string.action_challenge), pace.distance.get(), Difficulty.NONE);
+        this.plan = new Plan(program);
 
         this.measurement = new Measurement();
         this.current = null;
         this.progress = null;
 
-        fireChanged();
+        fireChanged(ALL);
     }
 
 	/**
      * A new measurement.
      *
      * @param measurement
+     * @param changes bitmask of values changed since the last measurement
      */
-    public Event onMeasured(Measurement measurement) {
+    public Event onMeasured(Measurement measurement, int changes) {
         Event event = Event.ACKNOLEDGED;
 
         this.measurement = measurement;
@@ -294,25 +431,37 @@ public class Gym {
                 if (current == null) {
                     current = program.newWorkout();
                     current.location.set(getLocation());
+                    writeBehind.write(current);
+
+                    progress = new Progress(0, new Measurement());
 
-                    progress = new Progress(program.getSegment(0), new Measurement());
+                    statistics = new Statistics(getPulseMax());
+
+                    journal.start(current.start.get(), current.programName(""));
 
                     event = Event.PROGRAM_START;
+                    changes |= PROGRESS;
                 }
 
                 if (current.onMeasured(measurement)) {
-                    mergeWorkout(current);
+                    journal.append(measurement);
+
+                    statistics.add(measurement);
+                    statistics.apply(current);
+                    writeBehind.write(current);
 
-                    Snapshot snapshot = new Snapshot(measurement);
-                    snapshot.workout.set(current);
-                    repository.insert(snapshot);
+                    if (chunk == null || chunk.workout.get() != current) {
+                        chunk = new SnapshotChunk(current, 0);
+                    } else if (chunk.isFull()) {
+                        chunk = new SnapshotChunk(current, chunk.first.get() + SnapshotChunk.SIZE);
+                    }
+                    chunk.add(measurement);
+                    writeBehind.write(chunk);
                 }
 
                 if (progress != null && progress.completion() == 1.0f) {
-                    Segment next = program.getNextSegment(progress.segment);
-                    if (next == null) {
-                        mergeWorkout(current);
-
+                    int next = progress.index + 1;
+                    if (next == plan.size()) {
                         progress = null;
 
                         event = Event.PROGRAM_FINISHED;
@@ -321,17 +470,442 @@ public class Gym {
 
                         event = Event.SEGMENT_CHANGED;
                     }
+                    changes |= PROGRESS;
+
+                    writeBehind.write(current);
+                    writeBehind.flush();
                 }
             }
         }
 
-        fireChanged();
+        fireChanged(changes);
 
         return event;
     }
 
-    public Match<Snapshot> getSnapshots(Workout workout) {
-        Snapshot prototype = new Snapshot();
+    /**
+     * A stroke was completed.
+     */
+    public void onStroke(Stroke stroke) {
+        if (current == null) {
+            return;
+        }
+
+        writeBehind.insert(stroke);
+    }
+
+    /**
+     * Load the snapshots of a workout.
+     */
+    public SnapshotSeries getSnapshots(Workout workout) {
+        if (isCurrent(workout)) {
+            // still recording
+            return loadSnapshots(workout);
+        }
+
+        Long key = key(workout);
+
+        int generation;
+        synchronized (seriesCache) {
+            SnapshotSeries series = seriesCache.get(key);
+            if (series != null) {
+                return series;
+            }
+            generation = invalidations;
+        }
+
+        SnapshotSeries series = loadSnapshots(workout);
+
+        synchronized (seriesCache) {
+            if (generation == invalidations) {
+                // not invalidated while loading
+                seriesCache.put(key, series);
+            }
+        }
+        return series;
+    }
+
+    /**
+     * Count of snapshots found in the cache.
+     */
+    public int getSnapshotsHits() {
+        return seriesCache.hitCount();
+    }
+
+    /**
+     * Count of snapshots not found in the cache.
+     */
+    public int getSnapshotsMisses() {
+        return seriesCache.missCount();
+    }
+
+    private SnapshotSeries loadSnapshots(Workout workout) {
+        SnapshotChunk prototype = new SnapshotChunk();
+        List<SnapshotChunk> chunks = repository.query(prototype, equal(prototype.workout, workout)).list(Order.ascending(prototype.first));
+
+        return SnapshotSeries.decode(chunks);
+    }
+
+    /**
+     * Migrate snapshots of all workouts into chunks, each workout in its own transaction.
+     */
+    public void migrateSnapshots() {
+        final Snapshot prototype = new Snapshot();
+        if (repository.query(prototype).count() == 0) {
+            return;
+        }
+
+        for (final Workout workout : repository.query(new Workout()).list()) {
+            final Match<Snapshot> snapshots = repository.query(prototype, equal(prototype.workout, workout));
+
+            repository.transactional(new Transaction() {
+                @Override
+                public void doTransactional() {
+                    List<Snapshot> list = snapshots.list(Order.ascendingByInsert());
+                    if (list.isEmpty()) {
+                        return;
+                    }
+
+                    for (SnapshotChunk chunk : SnapshotChunk.split(workout, list)) {
+                        repository.insert(chunk);
+                    }
+
+                    snapshots.delete();
+                }
+            });
+        }
+
+        // orphaned snapshots
+        repository.query(prototype).delete();
+    }
+
+    /**
+     * Compute the statistics of a workout from its snapshots.
+     */
+    public void computeStatistics(Workout workout) {
+        // bypass cache
+        computeStatistics(workout, loadSnapshots(workout));
+    }
+
+    /**
+     * Compute the statistics of a workout from already loaded snapshots.
+     */
+    public void computeStatistics(Workout workout, SnapshotSeries series) {
+        applyStatistics(workout, computeStatistics(series));
+    }
+
+    /**
+     * Compute statistics from loaded snapshots, without touching any workout.
+     */
+    public Statistics computeStatistics(SnapshotSeries series) {
+        Statistics statistics = new Statistics(getPulseMax());
+        statistics.add(series);
+        return statistics;
+    }
+
+    /**
+     * Apply computed statistics to a workout and merge it.
+     */
+    public void applyStatistics(Workout workout, Statistics statistics) {
+        statistics.apply(workout);
+
+        repository.merge(workout);
+    }
+
+    /**
+     * Compute statistics of all workouts which have none yet.
+     */
+    public void backfillStatistics() {
+        for (Workout workout : repository.query(new Workout()).list()) {
+            if (isCurrent(workout) || workout.hasStatistics()) {
+                continue;
+            }
+
+            computeStatistics(workout);
+        }
+    }
+
+    /**
+     * Get the workouts started before the given time, whose snapshots were not downsampled yet.
+     */
+    public List<Workout> getWorkoutsToDownsample(long before) {
+        Workout prototype = new Workout();
+
+        List<Workout> workouts = new ArrayList<>();
+        for (Workout workout : repository.query(prototype, lessThan(prototype.start, before)).list()) {
+            if (workout.isDownsampled() == false && isCurrent(workout) == false) {
+                workouts.add(workout);
+            }
+        }
+        return workouts;
+    }
+
+    /**
+     * Downsample the snapshots of a workout, its totals and statistics are kept as they are.
+     *
+     * @param bucket seconds
+     * @see SnapshotSeries#downsample(int)
+     */
+    public void downsample(final Workout workout, int bucket) {
+        final SnapshotSeries series = loadSnapshots(workout).downsample(bucket);
+
+        repository.transactional(new Transaction() {
+            @Override
+            public void doTransactional() {
+                SnapshotChunk prototype = new SnapshotChunk();
+                repository.query(prototype, equal(prototype.workout, workout)).delete();
+
+                for (SnapshotChunk chunk : SnapshotChunk.split(workout, series)) {
+                    repository.insert(chunk);
+                }
+
+                workout.downsampled.set(true);
+                repository.merge(workout);
+            }
+        });
+
+        invalidate(workout);
+    }
+
+    /**
+     * Rebuild the database file to release space of deleted rows.
+     * <p>
+     * Runs on the repository's own connection, so all other access is serialized with it. Writing
+     * behind is paused meanwhile, as vacuum cannot run while a transaction is open.
+     *
+     * @return {@code false} if the database could not be vacuumed, e.g. because it is busy
+     */
+    public boolean vacuum() {
+        writeBehind.pause();
+        try {
+            repository.vacuum();
+            return true;
+        } catch (SQLiteException ex) {
+            Log.w(Coxswain.TAG, "vacuum failed", ex);
+            return false;
+        } finally {
+            writeBehind.resume();
+        }
+    }
+
+    /**
+     * Get the rollups of a period.
+     *
+     * @param period {@link Rollup#DAY}, {@link Rollup#WEEK} or {@link Rollup#MONTH}
+     */
+    public Match<Rollup> getRollups(int period, long from, long to) {
+        Rollup prototype = new Rollup();
+
+        return repository.query(prototype, all(
+                equal(prototype.period, period),
+                greaterEqual(prototype.start, from),
+                lessThan(prototype.start, to))
+        );
+    }
+
+    /**
+     * Rebuild rollups if there are none yet, e.g. after an update from an older version.
+     */
+    public void migrateRollups() {
+        if (repository.query(new Rollup()).count() > 0) {
+            return;
+        }
+
+        Workout prototype = new Workout();
+        if (repository.query(prototype, equal(prototype.evaluate, true)).count() == 0) {
+            return;
+        }
+
+        rebuildRollups();
+    }
+
+    /**
+     * Rebuild all rollups from scratch.
+     */
+    public void rebuildRollups() {
+        final Workout prototype = new Workout();
+
+        repository.transactional(new Transaction() {
+            @Override
+            public void doTransactional() {
+                repository.query(new Rollup()).delete();
+
+                Map<String, Rollup> rollups = new HashMap<>();
+                for (Workout workout : repository.query(prototype, equal(prototype.evaluate, true)).list()) {
+                    if (isCurrent(workout)) {
+                        continue;
+                    }
+
+                    for (int period : Rollup.PERIODS) {
+                        long start = Rollup.start(period, workout.start.get());
+
+                        String key = period + ":" + start;
+                        Rollup rollup = rollups.get(key);
+                        if (rollup == null) {
+                            rollup = new Rollup(period, start);
+                            rollups.put(key, rollup);
+                        }
+                        rollup.add(workout, 1);
+                    }
+                }
+
+                for (Rollup rollup : rollups.values()) {
+                    repository.insert(rollup);
+                }
+            }
+        });
+    }
+
+    /**
+     * The current workout is no longer recorded, so write it and add it to the rollups.
+     *
+     * @param callback optional callback on the main thread after the current workout is written
+     */
+    private void finishCurrent(final Runnable callback) {
+        if (current == null) {
+            writeBehind.flush();
+            return;
+        }
+
+        final Workout workout = current;
+
+        statistics.apply(workout);
+
+        writeBehind.write(workout);
+        writeBehind.flush(new Runnable() {
+            @Override
+            public void run() {
+                // together with the journal, so a recovered workout is added once only
+                if (workout.evaluate.get()) {
+                    rollup(workout, 1);
+                }
+                journal.commit(workout.start.get());
+
+                // snapshots might have been loaded before all were written
+                invalidate(workout);
+
+                if (callback != null) {
+                    callback.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Recover a workout left in the journal, e.g. when the process was killed while rowing.
+     * <p>
+     * Accesses the database, thus should be called off the main thread.
+     */
+    public void recover() {
+        final Journal.Recovery recovery = journal.recover();
+        if (recovery == null) {
+            return;
+        }
+
+        Workout prototype = new Workout();
+        Workout written = repository.query(prototype, equal(prototype.start, recovery.start)).first();
+
+        final Workout workout;
+        if (written == null) {
+            // not yet written behind
+            workout = new Workout();
+            workout.start.set(recovery.start);
+
+            Program example = new Program();
+            workout.program.set(repository.query(example, equal(example.name, recovery.programName)).first());
+        } else {
+            workout = written;
+        }
+        workout.onMeasured(recovery.last());
+
+        final List<Snapshot> snapshots = recovery.snapshots();
+        repository.transactional(new Transaction() {
+            @Override
+            public void doTransactional() {
+                repository.merge(workout);
+
+                SnapshotChunk chunkPrototype = new SnapshotChunk();
+                repository.query(chunkPrototype, equal(chunkPrototype.workout, workout)).delete();
+
+                for (SnapshotChunk chunk : SnapshotChunk.split(workout, snapshots)) {
+                    repository.insert(chunk);
+                }
+            }
+        });
+
+        computeStatistics(workout, new SnapshotSeries(snapshots));
+        invalidate(workout);
+
+        if (workout.evaluate.get()) {
+            rollup(workout, 1);
+        }
+
+        journal.truncate();
+    }
+
+    private void rollup(final Workout workout, final int sign) {
+        repository.transactional(new Transaction() {
+            @Override
+            public void doTransactional() {
+                Rollup prototype = new Rollup();
+
+                for (int period : Rollup.PERIODS) {
+                    long start = Rollup.start(period, workout.start.get());
+
+                    Rollup rollup = repository.query(prototype, all(
+                            equal(prototype.period, period),
+                            equal(prototype.start, start))
+                    ).first();
+                    if (rollup == null) {
+                        rollup = new Rollup(period, start);
+                    }
+
+                    rollup.add(workout, sign);
+
+                    if (rollup.isEmpty()) {
+                        repository.delete(rollup);
+                    } else {
+                        repository.merge(rollup);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Invalidate the cached snapshots of the given workout.
+     */
+    private void invalidate(Workout workout) {
+        synchronized (seriesCache) {
+            invalidations++;
+
+            seriesCache.remove(key(workout));
+        }
+    }
+
+    /**
+     * Workouts are keyed by start, so the current workout can be invalidated although it is
+     * written behind as a copy.
+     */
+    private Long key(Workout workout) {
+        return workout.start.get();
+    }
+
+    /**
+     * Is the given workout the current one, lists load their own instances.
+     */
+    private boolean isCurrent(Workout workout) {
+        Workout current = this.current;
+
+        return current != null && current.start.get().equals(workout.start.get());
+    }
+
+    private int getPulseMax() {
+        return Preference.getInt(context, R.string.preference_pulse_max).fallback(190).get();
+    }
+
+    public Match<Stroke> getStrokes(Workout workout) {
+        Stroke prototype = new Stroke();
 
         return repository.query(prototype, equal(prototype.workout, workout));
     }
@@ -366,53 +940,96 @@ public class Gym {
 
 	public class Progress {
 
+        /**
+         * Index of the segment in the plan.
+         */
+        public final int index;
+
         public final Segment segment;
 
+        private final Plan plan;
+
+        private final int targetKind;
+
+        private final int target;
+
+        private final int limitKind;
+
+        private final int limit;
+
         /**
-         * Measurement of start of segment
+         * Achieved value at start of segment
          */
-        private final Measurement startMeasurement;
+        private final int start;
+
+        /**
+         * Exact duration at start of segment
+         */
+        private final float startDuration;
+
+        private String description;
 
-        public Progress(Segment segment, Measurement measurement) {
-            this.segment = segment;
+        public Progress(int index, Measurement measurement) {
+            this.index = index;
+            this.segment = program.getSegment(index);
+            this.plan = Gym.this.plan;
 
-            this.startMeasurement = new Measurement(measurement);
+            this.targetKind = plan.getTargetKind(index);
+            this.target = plan.getTarget(index);
+            this.limitKind = plan.getLimitKind(index);
+            this.limit = plan.getLimit(index);
+
+            this.start = Plan.value(measurement, targetKind);
+            this.startDuration = measurement.getExactDuration();
         }
 
         public float completion() {
-            float achieved = achieved();
-            float target = segment.getTarget();
+            float achieved;
+            if (targetKind == Measurement.DURATION || targetKind == Plan.NONE) {
+                // duration with sub-second precision
+                achieved = measurement.getExactDuration() - startDuration;
+            } else {
+                achieved = achieved();
+            }
 
             return Math.min(achieved / target, 1.0f);
         }
 
         public int achieved() {
-            return achieved(measurement) - achieved(startMeasurement);
+            return Plan.value(measurement, targetKind) - start;
         }
 
-        private int achieved(Measurement measurement) {
-            if (segment.distance.get() > 0) {
-                return measurement.distance;
-            } else if (segment.strokes.get() > 0) {
-                return measurement.strokes;
-            } else if (segment.energy.get() > 0) {
-                return measurement.energy;
-            } else if (segment.duration.get() > 0){
-                return measurement.duration;
-            }
-            return 0;
+        /**
+         * The target of this segment.
+         *
+         * @param kind kind of target
+         * @return target or {@code 0} if the target is of another kind
+         */
+        public int getTarget(int kind) {
+            return kind == targetKind ? target : 0;
+        }
+
+        /**
+         * The limit of this segment.
+         *
+         * @param kind kind of limit
+         * @return limit or {@code 0} if the limit is of another kind
+         */
+        public int getLimit(int kind) {
+            return kind == limitKind ? limit : 0;
         }
 
         public boolean inLimit() {
-            if (measurement.speed < progress.segment.speed.get()) {
-                return false;
-            } else if (measurement.pulse < progress.segment.pulse.get()) {
-                return false;
-            } else if (measurement.strokeRate < progress.segment.strokeRate.get()) {
-                return false;
-            }
+            return Plan.value(measurement, limitKind) >= limit;
+        }
 
-            return true;
+        /**
+         * Level of the whole program.
+         *
+         * @return level from {@code 0} to {@code 1}
+         */
+        public float level() {
+            return plan.level(index, completion());
         }
 
         public String describeTarget() {
@@ -444,24 +1061,31 @@ public class Gym {
             return limit;
         }
 
+        /**
+         * Describe target and limit, once for each segment.
+         */
         public String describe() {
-            StringBuilder description = new StringBuilder();
+            if (description == null) {
+                StringBuilder description = new StringBuilder();
 
-            description.append(describeTarget());
+                description.append(describeTarget());
 
-            String limit = describeLimit();
-            if (limit.isEmpty() == false) {
-                description.append(", ");
-                description.append(limit);
+                String limit = describeLimit();
+                if (limit.isEmpty() == false) {
+                    description.append(", ");
+                    description.append(limit);
+                }
+
+                this.description = description.toString();
             }
 
-            return description.toString();
+            return description;
         }
     }
 
-    private void fireChanged() {
+    private void fireChanged(int changes) {
         for (Listener listener : listeners) {
-            listener.changed();
+            listener.changed(changes);
         }
     }
 
@@ -474,6 +1098,13 @@ public class Gym {
     }
 
     public interface Listener {
-        void changed();
+
+        /**
+         * Something changed.
+         *
+         * @param changes bits of changed fields of the {@link #measurement}, and {@link #PROGRESS},
+         *                {@link #PROGRAM} or {@link #PACE}
+         */
+        void changed(int changes);
     }
 }
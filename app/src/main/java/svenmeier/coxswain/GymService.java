@@ -28,12 +28,18 @@ import android.hardware.usb.UsbManager;
 import android.os.Handler;
 import android.os.IBinder;
 
+import java.io.File;
+
 import propoid.util.content.Preference;
+import svenmeier.coxswain.gym.Handoff;
+import svenmeier.coxswain.gym.Measurement;
 import svenmeier.coxswain.gym.Program;
+import svenmeier.coxswain.gym.Stroke;
 import svenmeier.coxswain.motivator.DefaultMotivator;
 import svenmeier.coxswain.motivator.Motivator;
 import svenmeier.coxswain.rower.Rower;
 import svenmeier.coxswain.rower.mock.MockRower;
+import svenmeier.coxswain.rower.water.TraceRower;
 import svenmeier.coxswain.rower.water.WaterRower;
 
 public class GymService extends Service {
@@ -85,7 +91,13 @@ public class GymService extends Service {
 
         Rower rower;
         if (device == null) {
-            rower = new MockRower();
+            // replay only in debug builds and from app-private storage
+            File replay = BuildConfig.DEBUG ? new File(getExternalFilesDir(null), TraceRower.REPLAY_FILE) : null;
+            if (replay != null && replay.exists()) {
+                rower = new TraceRower(replay, 1);
+            } else {
+                rower = new MockRower();
+            }
         } else {
             rower = new WaterRower(this, device);
         }
@@ -106,7 +118,7 @@ public class GymService extends Service {
     /**
      * Current rowing on rower.
      */
-    private class Rowing implements Runnable {
+    private class Rowing implements Runnable, Rower.Listener {
 
         private final Rower rower;
 
@@ -116,6 +128,15 @@ public class GymService extends Service {
 
         private Program program;
 
+        private final Handoff handoff = new Handoff();
+
+        /**
+         * Latest measurement taken on the main thread.
+         */
+        private final Measurement measurement = new Measurement();
+
+        private final Runnable update = new Update();
+
         public Rowing(Rower rower) {
             this.rower = rower;
 
@@ -125,6 +146,8 @@ public class GymService extends Service {
         }
 
         public void run() {
+            rower.setListener(this);
+
             if (rower.open()) {
                 while (true) {
                     if (GymService.this.rowing != this) {
@@ -150,38 +173,7 @@ public class GymService extends Service {
 
                     heart.pulse();
 
-                    handler.post(new Runnable() {
-                        @Override
-                        public void run() {
-                            if (GymService.this.rowing != Rowing.this) {
-                                // no longer current
-                                return;
-                            }
-
-                            if (gym.program ==  null) {
-                                foreground.connected(String.format(getString(R.string.gym_notification_connected), rower.getName()));
-                                return;
-                            } else if (gym.program != program) {
-                                // program changed
-                                return;
-                            }
-
-                            String text = program.name.get();
-                            float completion = 0;
-                            if (gym.progress != null) {
-                                text += " - " +  gym.progress.describe();
-                                completion = gym.progress.completion();
-                            }
-                            foreground.workout(text, completion);
-
-                            Event event = gym.onMeasured(rower);
-                            motivator.onEvent(event);
-
-                            if (event == Event.PROGRAM_FINISHED && openEnd.get() == false) {
-                                gym.deselect();
-                            }
-                        }
-                    });
+                    rower.publish();
                 }
 
                 rower.close();
@@ -199,6 +191,60 @@ public class GymService extends Service {
             });
         }
 
+        /**
+         * Hand off changes to the main thread, with at most one pending update.
+         */
+        @Override
+        public void onChanged(Rower rower, int changes) {
+            if (handoff.offer(rower, changes)) {
+                handler.post(update);
+            }
+        }
+
+        /**
+         * Update on the main thread with the latest measurement.
+         */
+        private class Update implements Runnable {
+            @Override
+            public void run() {
+                int changes = handoff.take(measurement);
+
+                if (GymService.this.rowing != Rowing.this) {
+                    // no longer current
+                    return;
+                }
+
+                // ignored without current workout
+                Stroke stroke;
+                while ((stroke = rower.pollStroke()) != null) {
+                    gym.onStroke(stroke);
+                }
+
+                if (gym.program ==  null) {
+                    foreground.connected(String.format(getString(R.string.gym_notification_connected), rower.getName()));
+                    return;
+                } else if (gym.program != program) {
+                    // program changed
+                    return;
+                }
+
+                String text = program.name.get();
+                float completion = 0;
+                if (gym.progress != null) {
+                    text += " - " +  gym.progress.describe();
+                    completion = gym.progress.completion();
+                }
+                foreground.workout(text, completion);
+
+                Event event = gym.onMeasured(measurement, changes);
+                motivator.onEvent(event);
+
+                if (event == Event.PROGRAM_FINISHED && openEnd.get() == false) {
+                    gym.deselect();
+                }
+            }
+        }
+
     }
 
     private class Foreground {
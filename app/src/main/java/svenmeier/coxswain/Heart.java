@@ -29,6 +29,9 @@ public class Heart {
 	public void destroy() {
 	}
 
+	/**
+	 * Update the pulse of the measurement, published with the rower's next changes.
+	 */
 	public final void pulse() {
 		if (heartRate == -1) {
 			return;
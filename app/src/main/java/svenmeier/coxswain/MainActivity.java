@@ -108,11 +108,13 @@ public class MainActivity extends AbstractActivity {
 
         listener = new Gym.Listener() {
             @Override
-            public void changed() {
-                updateProgram();
+            public void changed(int changes) {
+                if ((changes & (Gym.PROGRAM | Gym.PROGRESS)) != 0) {
+                    updateProgram();
+                }
             }
         };
-        listener.changed();
+        listener.changed(Gym.ALL);
         gym.addListener(listener);
     }
 
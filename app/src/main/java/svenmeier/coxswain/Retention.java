@@ -0,0 +1,92 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain;
+
+import android.app.Notification;
+import android.app.NotificationManager;
+import android.content.Context;
+import android.util.Log;
+
+import java.util.Calendar;
+import java.util.List;
+
+import propoid.util.content.Preference;
+import svenmeier.coxswain.gym.Workout;
+
+/**
+ * Downsamples the snapshots of workouts older than the configured count of months, showing the
+ * progress in a notification.
+ * <p>
+ * Each workout is downsampled in its own transaction and marked as such, so an interrupted run is
+ * resumed on the next start.
+ */
+class Retention implements Runnable {
+
+    /**
+     * Seconds of each bucket to downsample to.
+     */
+    public static final int BUCKET = 10;
+
+    private static final int NOTIFICATION_ID = 2;
+
+    private final Context context;
+
+    private final Gym gym;
+
+    public Retention(Context context) {
+        this.context = context;
+
+        this.gym = Gym.instance(context);
+    }
+
+    @Override
+    public void run() {
+        int months = Preference.getInt(context, R.string.preference_retention_months).fallback(0).get();
+        if (months <= 0) {
+            return;
+        }
+
+        Calendar before = Calendar.getInstance();
+        before.add(Calendar.MONTH, -months);
+
+        List<Workout> workouts = gym.getWorkoutsToDownsample(before.getTimeInMillis());
+        if (workouts.isEmpty()) {
+            return;
+        }
+
+        NotificationManager manager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        Notification.Builder builder = new Notification.Builder(context)
+                .setSmallIcon(R.drawable.notification)
+                .setContentTitle(context.getString(R.string.app_name))
+                .setContentText(context.getString(R.string.retention_notification))
+                .setOngoing(true);
+
+        try {
+            for (int w = 0; w < workouts.size(); w++) {
+                builder.setProgress(workouts.size(), w, false);
+                manager.notify(NOTIFICATION_ID, builder.build());
+
+                gym.downsample(workouts.get(w), BUCKET);
+            }
+
+            gym.vacuum();
+        } catch (Exception ex) {
+            Log.e(Coxswain.TAG, "retention failed", ex);
+        } finally {
+            manager.cancel(NOTIFICATION_ID);
+        }
+    }
+}
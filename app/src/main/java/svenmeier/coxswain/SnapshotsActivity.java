@@ -28,15 +28,11 @@ import android.view.View;
 import android.widget.TextView;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.TimeZone;
 
-import propoid.db.Order;
 import propoid.db.Reference;
-import propoid.ui.list.MatchLookup;
 import propoid.util.content.Preference;
-import svenmeier.coxswain.gym.Snapshot;
+import svenmeier.coxswain.gym.SnapshotSeries;
 import svenmeier.coxswain.gym.Workout;
 import svenmeier.coxswain.view.TimelineView;
 import svenmeier.coxswain.view.Utils;
@@ -54,11 +50,17 @@ public class SnapshotsActivity extends AbstractActivity implements View.OnClickL
 
     private int highlight;
 
-    private List<Snapshot> snapshots = new ArrayList<>();
+    private SnapshotSeries series = new SnapshotSeries(0);
 
-    private Snapshot minSnapshot;
+    /**
+     * Minimum of speed, pulse and stroke rate.
+     */
+    private int[] min = new int[3];
 
-    private Snapshot maxSnapshot;
+    /**
+     * Maximum of speed, pulse and stroke rate.
+     */
+    private int[] max = new int[3];
 
     private TextView titleView;
 
@@ -89,7 +91,9 @@ public class SnapshotsActivity extends AbstractActivity implements View.OnClickL
         timelineView.setOnClickListener(this);
         timelineView.setPeriods(new SnapshotPeriods());
 
-        new SnapshotLookup().restartLoader(0, this);
+        if (workout != null) {
+            new SnapshotLookup().initLoader(0, this);
+        }
     }
 
     @Override
@@ -220,20 +224,18 @@ public class SnapshotsActivity extends AbstractActivity implements View.OnClickL
             paint.setTextSize(textSize);
             paint.getFontMetrics(metrics);
 
-            int index = (int)(from / 1000);
-            if (index >= 0 && index < snapshots.size()) {
-                Snapshot snapshot = snapshots.get(index);
-
+            int index = series.indexOf((int)(from / 1000));
+            if (index >= 0) {
                 String what;
                 switch (highlight) {
                     case 0:
-                        what = String.format(getString(R.string.speed_metersPerSecond_abbr), snapshot.speed.get() / 100f);
+                        what = String.format(getString(R.string.speed_metersPerSecond_abbr), series.speed[index] / 100f);
                         break;
                     case 1:
-                        what = String.format(getString(R.string.pulse_beatsPerMinute_abbr), snapshot.pulse.get());
+                        what = String.format(getString(R.string.pulse_beatsPerMinute_abbr), series.pulse[index]);
                         break;
                     case 2:
-                        what = String.format(getString(R.string.strokeRate_strokesPerMinute_abbr), snapshot.strokeRate.get());
+                        what = String.format(getString(R.string.strokeRate_strokesPerMinute_abbr), series.strokeRate[index]);
                         break;
                     default:
                         throw new IndexOutOfBoundsException();
@@ -261,34 +263,16 @@ public class SnapshotsActivity extends AbstractActivity implements View.OnClickL
 
             for (int index = 0; index <= RESOLUTION; index++) {
 
-                int current = start + ((end - start) * index / RESOLUTION);
-                if (current < 0 || current >= snapshots.size()) {
+                int time = start + ((end - start) * index / RESOLUTION);
+                int current = series.indexOf(time);
+                if (current < 0 || time > series.time[series.size() - 1]) {
+                    // before or after snapshots
                     continue;
                 }
-                Snapshot snapshot = snapshots.get(current);
 
-                int value;
-                int min;
-                int max;
-                switch (property) {
-                    case 0:
-                        value = snapshot.speed.get();
-                        min = minSnapshot.speed.get();
-                        max = maxSnapshot.speed.get();
-                        break;
-                    case 1:
-                        value = snapshot.pulse.get();
-                        min = minSnapshot.pulse.get();
-                        max = maxSnapshot.pulse.get();
-                        break;
-                    case 2:
-                        value = snapshot.strokeRate.get();
-                        min = minSnapshot.strokeRate.get();
-                        max = maxSnapshot.strokeRate.get();
-                        break;
-                    default:
-                        throw new IndexOutOfBoundsException();
-                }
+                int min = SnapshotsActivity.this.min[property];
+                int max = SnapshotsActivity.this.max[property];
+                int value = column(property)[current];
 
                 float width = rect.width() - padding - padding;
                 float x = rect.left + padding;
@@ -324,37 +308,41 @@ public class SnapshotsActivity extends AbstractActivity implements View.OnClickL
         }
     }
 
-    private class SnapshotLookup extends MatchLookup<Snapshot> {
+    private class SnapshotLookup extends SnapshotsLookup {
 
         public SnapshotLookup() {
-            super(gym.getSnapshots(workout));
-
-            setOrder(Order.ascendingByInsert());
+            super(SnapshotsActivity.this, workout, true);
         }
 
         @Override
-        protected void onLookup(List<Snapshot> lookup) {
-            snapshots = new ArrayList<>(lookup);
-
-            minSnapshot = new Snapshot();
-            minSnapshot.speed.set(Integer.MAX_VALUE);
-            minSnapshot.strokeRate.set(Integer.MAX_VALUE);
-            minSnapshot.pulse.set(Integer.MAX_VALUE);
-            maxSnapshot = new Snapshot();
-            for (Snapshot snapshot : snapshots) {
-                minSnapshot.speed.set(Math.min(minSnapshot.speed.get(), snapshot.speed.get()));
-                minSnapshot.strokeRate.set(Math.min(minSnapshot.strokeRate.get(), snapshot.strokeRate.get()));
-                minSnapshot.pulse.set(Math.min(minSnapshot.pulse.get(), snapshot.pulse.get()));
-
-                maxSnapshot.speed.set(Math.max(maxSnapshot.speed.get(), snapshot.speed.get()));
-                maxSnapshot.strokeRate.set(Math.max(maxSnapshot.strokeRate.get(), snapshot.strokeRate.get()));
-                maxSnapshot.pulse.set(Math.max(maxSnapshot.pulse.get(), snapshot.pulse.get()));
-            }
+        protected void onLookup(SnapshotSeries lookup) {
+            series = lookup;
+
+            // floors include pauses and zero values ignored by the minimums
+            min[0] = workout.speedFloor.get();
+            max[0] = workout.speedMax.get();
+            min[1] = workout.pulseFloor.get();
+            max[1] = workout.pulseMax.get();
+            min[2] = workout.strokeRateFloor.get();
+            max[2] = workout.strokeRateMax.get();
 
             timelineView.postInvalidate();
         }
     }
 
+    private int[] column(int property) {
+        switch (property) {
+            case 0:
+                return series.speed;
+            case 1:
+                return series.pulse;
+            case 2:
+                return series.strokeRate;
+            default:
+                throw new IndexOutOfBoundsException();
+        }
+    }
+
     public static Intent createIntent(Context context, Workout workout) {
         Intent intent = new Intent(context, SnapshotsActivity.class);
 
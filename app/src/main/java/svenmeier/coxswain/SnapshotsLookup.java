@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.support.v4.app.FragmentActivity;
+import android.support.v4.app.LoaderManager;
+import android.support.v4.content.AsyncTaskLoader;
+import android.support.v4.content.Loader;
+
+import svenmeier.coxswain.gym.SnapshotSeries;
+import svenmeier.coxswain.gym.Statistics;
+import svenmeier.coxswain.gym.Workout;
+
+/**
+ * Lookup of the snapshots of a workout with a {@link Loader}, similar to a {@code MatchLookup}.
+ * <p>
+ * Missing statistics are computed in the background, but applied to the workout on the main thread
+ * only.
+ */
+abstract class SnapshotsLookup implements LoaderManager.LoaderCallbacks<SnapshotsLookup.Snapshots> {
+
+    private final Context context;
+
+    private final Workout workout;
+
+    private final boolean computeStatistics;
+
+    /**
+     * @param computeStatistics compute statistics of the workout if it has none yet
+     */
+    public SnapshotsLookup(Context context, Workout workout, boolean computeStatistics) {
+        this.context = context.getApplicationContext();
+        this.workout = workout;
+        this.computeStatistics = computeStatistics;
+    }
+
+    /**
+     * Start loading, reusing an already loaded series, e.g. after a configuration change.
+     */
+    public void initLoader(int id, FragmentActivity activity) {
+        activity.getSupportLoaderManager().initLoader(id, null, this);
+    }
+
+    @Override
+    public Loader<Snapshots> onCreateLoader(int id, Bundle args) {
+        return new SnapshotsLoader(context, workout, computeStatistics);
+    }
+
+    @Override
+    public void onLoadFinished(Loader<Snapshots> loader, Snapshots snapshots) {
+        if (snapshots.statistics != null && workout.hasStatistics() == false) {
+            Gym.instance(context).applyStatistics(workout, snapshots.statistics);
+        }
+
+        onLookup(snapshots.series);
+    }
+
+    @Override
+    public void onLoaderReset(Loader<Snapshots> loader) {
+    }
+
+    protected abstract void onLookup(SnapshotSeries series);
+
+    /**
+     * Loaded snapshots with optionally computed statistics.
+     */
+    static class Snapshots {
+
+        final SnapshotSeries series;
+
+        final Statistics statistics;
+
+        Snapshots(SnapshotSeries series, Statistics statistics) {
+            this.series = series;
+            this.statistics = statistics;
+        }
+    }
+
+    private static class SnapshotsLoader extends AsyncTaskLoader<Snapshots> {
+
+        private final Workout workout;
+
+        private final boolean computeStatistics;
+
+        private Snapshots snapshots;
+
+        public SnapshotsLoader(Context context, Workout workout, boolean computeStatistics) {
+            super(context);
+
+            this.workout = workout;
+            this.computeStatistics = computeStatistics;
+        }
+
+        @Override
+        protected void onStartLoading() {
+            if (snapshots != null) {
+                deliverResult(snapshots);
+            } else {
+                forceLoad();
+            }
+        }
+
+        @Override
+        public Snapshots loadInBackground() {
+            Gym gym = Gym.instance(getContext());
+
+            SnapshotSeries series = gym.getSnapshots(workout);
+
+            Statistics statistics = null;
+            if (computeStatistics && workout.hasStatistics() == false) {
+                // do not touch the workout off the main thread
+                statistics = gym.computeStatistics(series);
+            }
+
+            return new Snapshots(series, statistics);
+        }
+
+        @Override
+        public void deliverResult(Snapshots snapshots) {
+            this.snapshots = snapshots;
+
+            if (isStarted()) {
+                super.deliverResult(snapshots);
+            }
+        }
+
+        @Override
+        protected void onStopLoading() {
+            cancelLoad();
+        }
+
+        @Override
+        protected void onReset() {
+            onStopLoading();
+
+            snapshots = null;
+        }
+    }
+}
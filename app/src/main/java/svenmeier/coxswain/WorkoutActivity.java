@@ -29,11 +29,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-import propoid.ui.list.MatchLookup;
 import propoid.util.content.Preference;
 import svenmeier.coxswain.gym.Measurement;
-import svenmeier.coxswain.gym.Segment;
-import svenmeier.coxswain.gym.Snapshot;
+import svenmeier.coxswain.gym.SnapshotSeries;
 import svenmeier.coxswain.view.BindingDialogFragment;
 import svenmeier.coxswain.view.BindingView;
 import svenmeier.coxswain.view.LevelView;
@@ -162,6 +160,8 @@ public class WorkoutActivity extends AbstractActivity implements View.OnSystemUi
 			});
 		}
 
+		updateBindings(Gym.ALL);
+
 		gridView.requestLayout();
 	}
 
@@ -211,7 +211,7 @@ public class WorkoutActivity extends AbstractActivity implements View.OnSystemUi
 	public void onResume() {
 		super.onResume();
 
-		changed();
+		changed(Gym.ALL);
 		gym.addListener(this);
 	}
 
@@ -223,13 +223,13 @@ public class WorkoutActivity extends AbstractActivity implements View.OnSystemUi
 	}
 
 	@Override
-	public void changed() {
+	public void changed(int changes) {
 		if (gym.program == null) {
 			finish();
 			return;
 		}
 
-		updateBindings();
+		updateBindings(changes);
 		updateLevel();
 	}
 
@@ -238,36 +238,30 @@ public class WorkoutActivity extends AbstractActivity implements View.OnSystemUi
 		leanBack(true);
 	}
 
-	private void updateBindings() {
+	private void updateBindings(int changes) {
 		int count = gridView.getChildCount();
 		for (int v = 0; v < count; v++) {
-			((BindingView) gridView.getChildAt(v)).changed(gym, paceBoat);
+			((BindingView) gridView.getChildAt(v)).changed(gym, paceBoat, changes);
 		}
 	}
 
 	private void updateLevel() {
-		float value = 0f;
-		float total = 0f;
-		Gym.Progress progress = gym.progress;
-		for (Segment segment : gym.program.segments.get()) {
-			float segmentValue = segment.asDuration();
-
-			if (progress != null && progress.segment == segment) {
-				value = total + progress.completion() * segmentValue;
-			}
+		float level = 1f;
 
-			total += segmentValue;
-		}
-		if (progress == null) {
-			value = total;
+		Gym.Progress progress = gym.progress;
+		if (progress != null) {
+			level = progress.level();
 		}
-		progressView.setLevel(Math.round(value * 10000 / total));
+
+		progressView.setLevel(Math.round(level * 10000));
 	}
 
 	@Override
 	public void onBinding(int index, ValueBinding binding) {
 		if (binding != null) {
-			((BindingView) gridView.getChildAt(index)).setBinding(binding);
+			BindingView bindingView = (BindingView) gridView.getChildAt(index);
+			bindingView.setBinding(binding);
+			bindingView.changed(gym, paceBoat);
 		}
 
 		leanBack(true);
@@ -331,74 +325,70 @@ public class WorkoutActivity extends AbstractActivity implements View.OnSystemUi
 	/**
 	 * Use a previous {@link svenmeier.coxswain.gym.Workout} as a pace boat.
 	 */
-	private class WorkoutPaceBoat extends MatchLookup<Snapshot> implements BindingView.PaceBoat {
+	private class WorkoutPaceBoat extends SnapshotsLookup implements BindingView.PaceBoat {
 
-		private List<Snapshot> snapshots = new ArrayList<>();
+		private SnapshotSeries series = new SnapshotSeries(0);
 
-		private int duration;
+		private int index;
 
 		protected WorkoutPaceBoat() {
-			super(gym.getSnapshots(gym.pace));
+			super(WorkoutActivity.this, gym.pace, false);
 
-			restartLoader(0, WorkoutActivity.this);
+			initLoader(0, WorkoutActivity.this);
+		}
+
+		@Override
+		protected void onLookup(SnapshotSeries series) {
+			this.series = series;
 		}
 
 		@Override
 		public int getDistanceDelta(Measurement measurement) {
-			if (snapshots.isEmpty()) {
+			if (series.isEmpty()) {
 				return 0;
 			}
 
-			int from = distanceAt(measurement.duration);
-			int to = distanceAt(measurement.duration + 1);
-
-			int paceDistance = from + ((to - from) * (measurement.distance % 1000) / 1000);
+			// decrement by one, because first snapshot is written after one second only
+			int paceDistance = (int) series.distanceAt(measurement.getExactDuration() - 1);
 
 			return measurement.distance - paceDistance;
 		}
 
-		private int distanceAt(int duration) {
-			// increment by one, because first snapshot is written after one second only
-			int index = duration - 1;
-			if (index < 0) {
-				return 0;
-			}
-
-			if (index >= snapshots.size()) {
-				index = snapshots.size() - 1;
-			}
-			return snapshots.get(index).distance.get();
-		}
-
 		@Override
 		public int getDurationDelta(Measurement measurement) {
-			while (this.duration < snapshots.size()) {
-				if (snapshots.get(this.duration).distance.get() >= measurement.distance) {
+			while (this.index < series.size()) {
+				if (series.distance[this.index] >= measurement.distance) {
 					break;
 				}
 
-				this.duration++;
+				this.index++;
 			}
 
-			if (this.duration >= snapshots.size() && this.duration > 0) {
-				Snapshot snapshot = snapshots.get(snapshots.size() - 1);
+			int paceDuration;
+			if (this.index >= series.size()) {
+				paceDuration = 0;
 
-				int distance = snapshot.distance.get();
-				if (distance > 0) {
+				int last = series.size() - 1;
+				if (last >= 0 && series.distance[last] > 0) {
 					// estimate duration
-					this.duration = snapshots.size() * measurement.distance / distance;
+					paceDuration = (series.time[last] + 1) * measurement.distance / series.distance[last];
 				}
+			} else if (this.index > 0) {
+				// interpolate between snapshots, these might be apart after downsampling
+				int fromTime = series.time[this.index - 1];
+				int fromDistance = series.distance[this.index - 1];
+				int toTime = series.time[this.index];
+				int toDistance = series.distance[this.index];
+
+				paceDuration = fromTime + 1;
+				if (toDistance > fromDistance) {
+					paceDuration += (toTime - fromTime) * (measurement.distance - fromDistance) / (toDistance - fromDistance);
+				}
+			} else {
+				paceDuration = series.time[0] + 1;
 			}
 
-			return measurement.duration - this.duration;
-		}
-
-		@Override
-		protected void onLookup(List<Snapshot> propoids) {
-			this.snapshots = propoids;
-
-			// no updates needed
-			destroy(0, WorkoutActivity.this);
+			return measurement.duration - paceDuration;
 		}
 	}
 
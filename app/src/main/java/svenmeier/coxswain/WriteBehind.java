@@ -0,0 +1,324 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import propoid.core.Propoid;
+import propoid.db.Repository;
+import propoid.db.Transaction;
+import svenmeier.coxswain.gym.SnapshotChunk;
+import svenmeier.coxswain.gym.Stroke;
+import svenmeier.coxswain.gym.Workout;
+
+/**
+ * Writes workouts and their snapshots and strokes behind on a background thread, all pending
+ * changes in a single transaction.
+ * <p>
+ * The main thread keeps recording into its own instances and hands over detached copies only, the
+ * propoids written to the database are owned by the writer thread. A failed transaction is
+ * retried with the next flush.
+ */
+class WriteBehind implements Runnable {
+
+    /**
+     * Milliseconds between flushes, i.e. the maximum of changes lost on a crash.
+     */
+    public static final long INTERVAL = 5000;
+
+    private final Repository repository;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private final Object lock = new Object();
+
+    /**
+     * Copies of workouts, chunks and strokes to write, in order. Chunks and strokes belong to the
+     * workout preceding them.
+     */
+    private List<Propoid> pending = new ArrayList<>();
+
+    /**
+     * Callbacks after the next flush.
+     */
+    private List<Runnable> callbacks = new ArrayList<>();
+
+    private boolean requested;
+
+    /**
+     * Writing is paused.
+     */
+    private boolean paused;
+
+    /**
+     * A batch is being written.
+     */
+    private boolean writing;
+
+    /**
+     * The written workout, owned by the writer thread.
+     */
+    private Workout workout;
+
+    /**
+     * The written chunks of {@link #workout} by index of first snapshot, owned by the writer thread.
+     */
+    private Map<Integer, SnapshotChunk> chunks = new HashMap<>();
+
+    public WriteBehind(Repository repository) {
+        this.repository = repository;
+
+        Thread thread = new Thread(this, "gym-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Write a copy of the given workout with the next flush.
+     * <p>
+     * Each workout has to be written before any of its chunks or strokes.
+     */
+    public void write(Workout workout) {
+        Workout copy = new Workout(workout);
+
+        synchronized (lock) {
+            for (int p = pending.size() - 1; p >= 0; p--) {
+                Propoid propoid = pending.get(p);
+                if (propoid instanceof Workout) {
+                    if (((Workout) propoid).start.get().equals(copy.start.get())) {
+                        // replace pending copy
+                        pending.set(p, copy);
+                        return;
+                    }
+                    break;
+                }
+            }
+            pending.add(copy);
+        }
+    }
+
+    /**
+     * Write a copy of the given chunk of the last written workout with the next flush.
+     */
+    public void write(SnapshotChunk chunk) {
+        SnapshotChunk copy = new SnapshotChunk(chunk);
+
+        synchronized (lock) {
+            for (int p = pending.size() - 1; p >= 0; p--) {
+                Propoid propoid = pending.get(p);
+                if (propoid instanceof Workout) {
+                    break;
+                } else if (propoid instanceof SnapshotChunk) {
+                    if (((SnapshotChunk) propoid).first.get().equals(copy.first.get())) {
+                        // replace pending copy
+                        pending.set(p, copy);
+                        return;
+                    }
+                }
+            }
+            pending.add(copy);
+        }
+    }
+
+    /**
+     * Insert a copy of the given stroke of the last written workout with the next flush.
+     */
+    public void insert(Stroke stroke) {
+        Stroke copy = new Stroke(stroke);
+
+        synchronized (lock) {
+            pending.add(copy);
+        }
+    }
+
+    /**
+     * Flush as soon as possible.
+     */
+    public void flush() {
+        flush(null);
+    }
+
+    /**
+     * Flush as soon as possible.
+     *
+     * @param callback optional callback on the main thread after the flush was committed
+     */
+    public void flush(Runnable callback) {
+        synchronized (lock) {
+            if (callback != null) {
+                callbacks.add(callback);
+            }
+
+            requested = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Pause writing, waiting for a batch being written to be committed.
+     *
+     * @see #resume()
+     */
+    public void pause() {
+        synchronized (lock) {
+            paused = true;
+
+            while (writing) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Resume writing after {@link #pause()}.
+     */
+    public void resume() {
+        synchronized (lock) {
+            paused = false;
+
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            List<Propoid> batch;
+            List<Runnable> callbacks;
+
+            synchronized (lock) {
+                if (requested == false || paused) {
+                    try {
+                        lock.wait(INTERVAL);
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+                if (paused) {
+                    continue;
+                }
+                requested = false;
+
+                batch = this.pending;
+                this.pending = new ArrayList<>();
+                callbacks = this.callbacks;
+                this.callbacks = new ArrayList<>();
+
+                writing = true;
+            }
+
+            boolean written = batch.isEmpty() || write(batch);
+
+            synchronized (lock) {
+                writing = false;
+                lock.notifyAll();
+
+                if (written == false) {
+                    // retry with the next flush
+                    batch.addAll(this.pending);
+                    this.pending = batch;
+                    callbacks.addAll(this.callbacks);
+                    this.callbacks = callbacks;
+                    continue;
+                }
+            }
+
+            for (Runnable callback : callbacks) {
+                handler.post(callback);
+            }
+        }
+    }
+
+    /**
+     * Write the given batch in a single transaction.
+     *
+     * @return {@code false} if the transaction failed
+     */
+    private boolean write(final List<Propoid> batch) {
+        Workout committedWorkout = workout;
+        Map<Integer, SnapshotChunk> committedChunks = new HashMap<>(chunks);
+
+        try {
+            repository.transactional(new Transaction() {
+                @Override
+                public void doTransactional() {
+                    for (Propoid propoid : batch) {
+                        if (propoid instanceof Workout) {
+                            writeWorkout((Workout) propoid);
+                        } else if (propoid instanceof SnapshotChunk) {
+                            writeChunk((SnapshotChunk) propoid);
+                        } else {
+                            insertStroke((Stroke) propoid);
+                        }
+                    }
+                }
+            });
+
+            return true;
+        } catch (Exception ex) {
+            Log.e(Coxswain.TAG, "write behind failed", ex);
+
+            // propoids created in the failed transaction are not in the database
+            workout = committedWorkout;
+            chunks = committedChunks;
+
+            return false;
+        }
+    }
+
+    private void writeWorkout(Workout copy) {
+        if (workout == null || workout.start.get().equals(copy.start.get()) == false) {
+            workout = new Workout(copy);
+            chunks = new HashMap<>();
+        } else {
+            workout.set(copy);
+        }
+
+        repository.merge(workout);
+    }
+
+    private void writeChunk(SnapshotChunk copy) {
+        SnapshotChunk chunk = chunks.get(copy.first.get());
+        if (chunk == null) {
+            chunk = new SnapshotChunk(copy);
+            chunk.workout.set(workout);
+            chunks.put(copy.first.get(), chunk);
+        } else {
+            chunk.set(copy);
+        }
+
+        repository.merge(chunk);
+    }
+
+    private void insertStroke(Stroke copy) {
+        Stroke stroke = new Stroke(copy);
+        stroke.workout.set(workout);
+
+        repository.insert(stroke);
+    }
+}
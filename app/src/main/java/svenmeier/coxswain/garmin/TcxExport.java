@@ -17,11 +17,10 @@ import java.io.IOException;
 import java.io.Writer;
 import java.text.SimpleDateFormat;
 
-import propoid.db.Match;
 import svenmeier.coxswain.Coxswain;
 import svenmeier.coxswain.Gym;
 import svenmeier.coxswain.R;
-import svenmeier.coxswain.gym.Snapshot;
+import svenmeier.coxswain.gym.SnapshotSeries;
 import svenmeier.coxswain.gym.Workout;
 import svenmeier.coxswain.io.Export;
 import svenmeier.coxswain.util.PermissionBlock;
@@ -80,11 +79,11 @@ public class TcxExport extends Export<Workout> {
 		public void run() {
 			toast(context.getString(R.string.garmin_export_starting));
 
-			Match<Snapshot> snapshots = gym.getSnapshots(workout);
+			SnapshotSeries series = gym.getSnapshots(workout);
 
 			final File file;
 			try {
-				file = write(snapshots);
+				file = write(series);
 			} catch (IOException e) {
 				Log.e(Coxswain.TAG, "export failed", e);
 				toast(context.getString(R.string.garmin_export_failed));
@@ -113,7 +112,7 @@ public class TcxExport extends Export<Workout> {
 			return name.toString();
 		}
 
-		private File write(Match<Snapshot> snapshots) throws IOException {
+		private File write(SnapshotSeries series) throws IOException {
 			File dir = Environment.getExternalStoragePublicDirectory(Coxswain.TAG);
 			dir.mkdirs();
 			dir.setReadable(true, false);
@@ -122,7 +121,7 @@ public class TcxExport extends Export<Workout> {
 
 			Writer writer = new BufferedWriter(new FileWriter(file));
 			try {
-				new Workout2TCX(writer).document(workout, snapshots.list());
+				new Workout2TCX(writer).document(workout, series);
 			} finally {
 				writer.close();
 			}
@@ -7,10 +7,9 @@ import org.xmlpull.v1.XmlSerializer;
 import java.io.IOException;
 import java.io.Writer;
 import java.text.SimpleDateFormat;
-import java.util.List;
 import java.util.TimeZone;
 
-import svenmeier.coxswain.gym.Snapshot;
+import svenmeier.coxswain.gym.SnapshotSeries;
 import svenmeier.coxswain.gym.Workout;
 
 /**
@@ -34,40 +33,40 @@ public class Workout2TCX {
 		dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
 	}
 
-	public void document(Workout workout, List<Snapshot> snaoshots) throws IOException {
+	public void document(Workout workout, SnapshotSeries series) throws IOException {
 
 		serializer.startDocument("UTF-8", true);
 
-		trainingCenterDatabase(workout, snaoshots);
+		trainingCenterDatabase(workout, series);
 
 		serializer.endDocument();
 	}
 
-	private void trainingCenterDatabase(Workout workout, List<Snapshot> snapshots) throws IOException {
+	private void trainingCenterDatabase(Workout workout, SnapshotSeries series) throws IOException {
 
 		serializer.startTag(null, "TrainingCenterDatabase");
 		serializer.attribute(null, "xmlns", "http://www.garmin.com/xmlschemas/TrainingCenterDatabase/v2");
 
-		activities(workout, snapshots);
+		activities(workout, series);
 
 		serializer.endTag(null, serializer.getName());
 	}
 
-	private void activities(Workout workout, List<Snapshot> snapshots) throws IOException {
+	private void activities(Workout workout, SnapshotSeries series) throws IOException {
 		serializer.startTag(null, "Activities");
 
-		activity(workout, snapshots);
+		activity(workout, series);
 
 		serializer.endTag(null, serializer.getName());
 	}
 
-	private void activity(Workout workout, List<Snapshot> snapshots) throws IOException {
+	private void activity(Workout workout, SnapshotSeries series) throws IOException {
 		serializer.startTag(null, "Activity");
 		serializer.attribute(null, "Sport", "Other");
 
 		tag(null, "Id", dateFormat.format(workout.start.get()));
 
-		lap(workout, snapshots);
+		lap(workout, series);
 
 		tag(null, "Notes", "Created by Coxswain");
 
@@ -96,7 +95,7 @@ public class Workout2TCX {
 		serializer.endTag(null, serializer.getName());
 	}
 
-	private void lap(Workout workout, List<Snapshot> snapshots) throws IOException {
+	private void lap(Workout workout, SnapshotSeries series) throws IOException {
 		serializer.startTag(null, "Lap");
 
 		serializer.attribute(null, "StartTime", dateFormat.format(workout.start.get()));
@@ -107,8 +106,8 @@ public class Workout2TCX {
 		tag(null, "Intensity", "Active");
 		tag(null, "TriggerMethod", "Manual");
 
-		if (snapshots.isEmpty() == false) {
-			track(workout, snapshots);
+		if (series.isEmpty() == false) {
+			track(workout, series);
 		}
 
 		extension("LX", "Steps", Integer.toString(workout.strokes.get()));
@@ -116,40 +115,40 @@ public class Workout2TCX {
 		serializer.endTag(null, serializer.getName());
 	}
 
-	private void track(Workout workout, List<Snapshot> snapshots) throws IOException {
+	private void track(Workout workout, SnapshotSeries series) throws IOException {
 		serializer.startTag(null, "Track");
 
 		path = new Track(workout.location.get());
 
-		for (int index = 0; index < snapshots.size(); index++) {
-			trackpoint(workout, snapshots.get(index), index);
+		for (int index = 0; index < series.size(); index++) {
+			trackpoint(workout, series, index);
 		}
 
 		serializer.endTag(null, serializer.getName());
 	}
 
-	private void trackpoint(Workout workout, Snapshot snapshot, int index) throws IOException {
+	private void trackpoint(Workout workout, SnapshotSeries series, int index) throws IOException {
 		serializer.startTag(null, "Trackpoint");
 
-		tag(null, "Time", dateFormat.format(workout.start.get() + index * 1000));
+		tag(null, "Time", dateFormat.format(workout.start.get() + series.time[index] * 1000L));
 
-		position(snapshot);
+		position(series.distance[index]);
 
-		tag(null, "DistanceMeters", snapshot.distance.get().toString());
+		tag(null, "DistanceMeters", Integer.toString(series.distance[index]));
 
-		heartRateBpm(snapshot.pulse.get());
+		heartRateBpm(series.pulse[index]);
 
-		tag(null, "Cadence", Integer.toString(snapshot.strokeRate.get()));
+		tag(null, "Cadence", Integer.toString(series.strokeRate[index]));
 
-		extension("TPX", "Speed", Float.toString(snapshot.speed.get() / 100f));
+		extension("TPX", "Speed", Float.toString(series.speed[index] / 100f));
 
 		serializer.endTag(null, serializer.getName());
 	}
 
-	private void position(Snapshot snapshot) throws IOException {
+	private void position(int distance) throws IOException {
 		serializer.startTag(null, "Position");
 
-		path.setDistance(snapshot.distance.get());
+		path.setDistance(distance);
 
 		tag(null, "LatitudeDegrees", Double.toString(path.getLatitude()));
 		tag(null, "LongitudeDegrees", Double.toString(path.getLongitude()));
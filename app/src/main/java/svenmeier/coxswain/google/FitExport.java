@@ -24,7 +24,7 @@ import java.util.concurrent.TimeUnit;
 import svenmeier.coxswain.Coxswain;
 import svenmeier.coxswain.Gym;
 import svenmeier.coxswain.R;
-import svenmeier.coxswain.gym.Snapshot;
+import svenmeier.coxswain.gym.SnapshotSeries;
 import svenmeier.coxswain.gym.Workout;
 import svenmeier.coxswain.io.Export;
 
@@ -121,7 +121,7 @@ public class FitExport extends Export<Workout> {
 		public void run() {
 			toast(context.getString(R.string.googlefit_export_starting));
 
-			List<Snapshot> snapshots = gym.getSnapshots(workout).list();
+			SnapshotSeries series = gym.getSnapshots(workout);
 			try {
 				Workout2Fit workout2Fit = new Workout2Fit();
 
@@ -138,7 +138,7 @@ public class FitExport extends Export<Workout> {
 					return;
 				}
 
-				for (DataSet dataSet : workout2Fit.dataSets(workout, snapshots)) {
+				for (DataSet dataSet : workout2Fit.dataSets(workout, series)) {
 					status = Fitness.HistoryApi.insertData(client, dataSet).await(1, TimeUnit.MINUTES);
 					if (status.isSuccess() == false) {
 						Log.e(Coxswain.TAG, "insert dataset failed " + status);
@@ -149,8 +149,6 @@ public class FitExport extends Export<Workout> {
 
 				toast(context.getString(R.string.googlefit_export_finished));
 			} finally {
-				snapshots.clear();
-
 				client.disconnect();
 			}
 		}
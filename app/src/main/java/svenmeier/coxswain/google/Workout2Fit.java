@@ -16,7 +16,7 @@ import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
 import svenmeier.coxswain.BuildConfig;
-import svenmeier.coxswain.gym.Snapshot;
+import svenmeier.coxswain.gym.SnapshotSeries;
 import svenmeier.coxswain.gym.Workout;
 
 /**
@@ -45,7 +45,7 @@ public class Workout2Fit {
 				.build();
 	}
 
-	public Iterable<DataSet> dataSets(final Workout workout, final List<Snapshot> snapshots) {
+	public Iterable<DataSet> dataSets(final Workout workout, final SnapshotSeries series) {
 		return new Iterable<DataSet>() {
 			@Override
 			public Iterator<DataSet> iterator() {
@@ -68,7 +68,7 @@ public class Workout2Fit {
 					public DataSet next() {
 						Mapper mapper = mappers.remove(mappers.size() - 1);
 
-						return mapper.dataSet(workout, snapshots);
+						return mapper.dataSet(workout, series);
 					}
 
 					@Override
@@ -82,7 +82,7 @@ public class Workout2Fit {
 
 	private abstract class Mapper {
 
-		public DataSet dataSet(Workout workout, List<Snapshot> snapshots) {
+		public DataSet dataSet(Workout workout, SnapshotSeries series) {
 			DataSource dataSource = new DataSource.Builder()
 					.setType(DataSource.TYPE_RAW)
 					.setDataType(type())
@@ -91,14 +91,14 @@ public class Workout2Fit {
 
 			DataSet dataSet = DataSet.create(dataSource);
 
-			map(dataSet, workout, snapshots);
+			map(dataSet, workout, series);
 
 			return dataSet;
 		}
 
 		protected abstract DataType type();
 
-		protected abstract void map(DataSet dataSet, Workout workout, List<Snapshot> snapshots);
+		protected abstract void map(DataSet dataSet, Workout workout, SnapshotSeries series);
 	}
 
 	private abstract class AbstractSnapshotMapper extends Mapper {
@@ -106,18 +106,16 @@ public class Workout2Fit {
 		private static final int MAX_DATAPOINTS = 1000;
 
 		@Override
-		protected void map(DataSet dataSet, Workout workout, List<Snapshot> snapshots) {
-			for (int index = 0; index < Math.min(snapshots.size(), MAX_DATAPOINTS); index++) {
-				Snapshot snapshot = snapshots.get(index);
-
+		protected void map(DataSet dataSet, Workout workout, SnapshotSeries series) {
+			for (int index = 0; index < Math.min(series.size(), MAX_DATAPOINTS); index++) {
 				DataPoint point = dataSet.createDataPoint();
-				point.setTimestamp(timestamp(workout, index), TimeUnit.MILLISECONDS);
-				map(snapshot, point);
+				point.setTimestamp(timestamp(workout, series.time[index]), TimeUnit.MILLISECONDS);
+				map(series, index, point);
 				dataSet.add(point);
 			}
 		}
 
-		protected abstract void map(Snapshot snapshot, DataPoint point);
+		protected abstract void map(SnapshotSeries series, int index, DataPoint point);
 	}
 
 	private class Speed extends AbstractSnapshotMapper {
@@ -127,8 +125,8 @@ public class Workout2Fit {
 		}
 
 		@Override
-		public void map(Snapshot snapshot, DataPoint point) {
-			point.getValue(Field.FIELD_SPEED).setFloat(snapshot.speed.get() / 100f);
+		public void map(SnapshotSeries series, int index, DataPoint point) {
+			point.getValue(Field.FIELD_SPEED).setFloat(series.speed[index] / 100f);
 		}
 	}
 
@@ -139,15 +137,15 @@ public class Workout2Fit {
 		}
 
 		@Override
-		public void map(Snapshot snapshot, DataPoint point) {
-			point.getValue(Field.FIELD_BPM).setFloat(snapshot.pulse.get());
+		public void map(SnapshotSeries series, int index, DataPoint point) {
+			point.getValue(Field.FIELD_BPM).setFloat(series.pulse[index]);
 		}
 	}
 
 	private abstract class AbstractWorkoutMapper extends Mapper {
 
 		@Override
-		protected void map(DataSet dataSet, Workout workout, List<Snapshot> snapshots) {
+		protected void map(DataSet dataSet, Workout workout, SnapshotSeries series) {
 			DataPoint point = dataSet.createDataPoint();
 			point.setTimeInterval(timestamp(workout, 0), timestamp(workout, workout.duration.get()), TimeUnit.MILLISECONDS);
 			map(workout, point);
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.gym;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands the latest measurement from a producing thread to a consuming thread, conflating
+ * all measurements offered while a previous one is still waiting to be taken.
+ * <p>
+ * Neither side ever blocks, the consumer always takes a consistent measurement.
+ */
+public class Handoff {
+
+    private final SharedMeasurement latest = new SharedMeasurement();
+
+    private final AtomicInteger changes = new AtomicInteger();
+
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    private final AtomicInteger merged = new AtomicInteger();
+
+    /**
+     * Offer a measurement.
+     *
+     * @param measurement measurement to copy
+     * @param changes bitmask of changed values
+     * @return {@code true} if the consumer has to be notified, {@code false} if it is
+     *          already notified and the measurement was merged into the pending one
+     */
+    public boolean offer(Measurement measurement, int changes) {
+        latest.write(measurement);
+
+        while (true) {
+            int current = this.changes.get();
+            if (this.changes.compareAndSet(current, current | changes)) {
+                break;
+            }
+        }
+
+        if (pending.compareAndSet(false, true)) {
+            return true;
+        }
+
+        merged.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Take the latest measurement.
+     *
+     * @param measurement measurement to copy into
+     * @return bitmask of changed values since the last take
+     */
+    public int take(Measurement measurement) {
+        // clear first, so a concurrent offer is never lost
+        pending.set(false);
+
+        int changes = this.changes.getAndSet(0);
+
+        latest.read(measurement);
+
+        return changes;
+    }
+
+    /**
+     * Count of measurements merged into a pending one.
+     */
+    public int getMerged() {
+        return merged.get();
+    }
+}
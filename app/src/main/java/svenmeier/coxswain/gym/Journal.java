@@ -0,0 +1,269 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.gym;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only journal of the measurements of the current workout, one per second.
+ * <p>
+ * The file is memory mapped, so appends are plain memory writes without any system call. As
+ * the kernel owns the mapped pages, they survive the process being killed and are written to
+ * disk eventually.
+ * <p>
+ * Journaling is best effort: if the file cannot be mapped, measurements are not journaled.
+ *
+ * @see #recover()
+ */
+public class Journal {
+
+    static final int MAGIC = 0x434A4E31;
+
+    /**
+     * Magic, count, start, program name length and program name.
+     */
+    static final int HEADER = 4 + 4 + 8 + 2 + 238;
+
+    private static final int MAX_NAME = HEADER - 4 - 4 - 8 - 2;
+
+    /**
+     * Duration, distance, strokes, speed, pulse, stroke rate, stroke ratio and energy.
+     */
+    static final int RECORD = 8 * 4;
+
+    /**
+     * Initial count of records, doubled when exceeded.
+     */
+    private static final int INITIAL = 3600;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int COUNT_OFFSET = 4;
+    private static final int START_OFFSET = 8;
+    private static final int NAME_OFFSET = 16;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final File file;
+
+    private MappedByteBuffer buffer;
+
+    /**
+     * Start of the journaled workout, {@code 0} if none.
+     */
+    private long start;
+
+    private int count;
+
+    public Journal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Start journaling a new workout, replacing any previous one.
+     */
+    public void start(long start, String programName) {
+        this.start = 0;
+        this.count = 0;
+
+        if (buffer == null && map(HEADER + INITIAL * RECORD) == false) {
+            return;
+        }
+
+        byte[] name = programName.getBytes(UTF8);
+        int length = Math.min(name.length, MAX_NAME);
+
+        buffer.putInt(MAGIC_OFFSET, 0);
+        buffer.putInt(COUNT_OFFSET, 0);
+        buffer.putLong(START_OFFSET, start);
+        buffer.putShort(NAME_OFFSET, (short)length);
+        for (int b = 0; b < length; b++) {
+            buffer.put(NAME_OFFSET + 2 + b, name[b]);
+        }
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+
+        this.start = start;
+    }
+
+    /**
+     * Append a measurement to the current workout.
+     */
+    public void append(Measurement measurement) {
+        if (start == 0) {
+            return;
+        }
+
+        int position = HEADER + count * RECORD;
+        if (position + RECORD > buffer.capacity()) {
+            if (map(buffer.capacity() * 2) == false) {
+                start = 0;
+                return;
+            }
+        }
+
+        buffer.putInt(position, measurement.duration);
+        buffer.putInt(position + 4, measurement.distance);
+        buffer.putInt(position + 8, measurement.strokes);
+        buffer.putInt(position + 12, measurement.speed);
+        buffer.putInt(position + 16, measurement.pulse);
+        buffer.putInt(position + 20, measurement.strokeRate);
+        buffer.putInt(position + 24, measurement.strokeRatio);
+        buffer.putInt(position + 28, measurement.energy);
+
+        // count after the record is complete
+        count++;
+        buffer.putInt(COUNT_OFFSET, count);
+    }
+
+    /**
+     * The workout was committed, so the journal can be truncated.
+     *
+     * @param start start of the committed workout, ignored if another workout is journaled already
+     */
+    public void commit(long start) {
+        if (this.start == 0 || this.start != start) {
+            return;
+        }
+
+        truncate();
+    }
+
+    /**
+     * Truncate the journal.
+     * <p>
+     * The mapping is kept for the next workout, only the header is invalidated.
+     */
+    public void truncate() {
+        this.start = 0;
+        this.count = 0;
+
+        if (buffer != null) {
+            buffer.putInt(MAGIC_OFFSET, 0);
+            buffer.putInt(COUNT_OFFSET, 0);
+        } else if (file.exists()) {
+            file.delete();
+        }
+    }
+
+    /**
+     * Recover a workout left in the journal.
+     *
+     * @return recovered workout or {@code null}
+     */
+    public Recovery recover() {
+        if (file.exists() == false || file.length() < HEADER) {
+            return null;
+        }
+
+        if (buffer == null && map((int)file.length()) == false) {
+            return null;
+        }
+
+        if (buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+            return null;
+        }
+
+        int count = Math.min(buffer.getInt(COUNT_OFFSET), (buffer.capacity() - HEADER) / RECORD);
+        if (count <= 0) {
+            return null;
+        }
+
+        int length = Math.min(buffer.getShort(NAME_OFFSET), MAX_NAME);
+        byte[] name = new byte[Math.max(length, 0)];
+        for (int b = 0; b < name.length; b++) {
+            name[b] = buffer.get(NAME_OFFSET + 2 + b);
+        }
+
+        Recovery recovery = new Recovery(buffer.getLong(START_OFFSET), new String(name, UTF8));
+        for (int r = 0; r < count; r++) {
+            int position = HEADER + r * RECORD;
+
+            Measurement measurement = new Measurement();
+            measurement.duration = buffer.getInt(position);
+            measurement.distance = buffer.getInt(position + 4);
+            measurement.strokes = buffer.getInt(position + 8);
+            measurement.speed = buffer.getInt(position + 12);
+            measurement.pulse = buffer.getInt(position + 16);
+            measurement.strokeRate = buffer.getInt(position + 20);
+            measurement.strokeRatio = buffer.getInt(position + 24);
+            measurement.energy = buffer.getInt(position + 28);
+
+            recovery.measurements.add(measurement);
+        }
+
+        return recovery;
+    }
+
+    private boolean map(int size) {
+        try {
+            RandomAccessFile access = new RandomAccessFile(file, "rw");
+            try {
+                buffer = access.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            } finally {
+                // mapping stays valid
+                access.close();
+            }
+            return true;
+        } catch (IOException ex) {
+            buffer = null;
+            return false;
+        }
+    }
+
+    /**
+     * A workout recovered from the journal.
+     */
+    public static class Recovery {
+
+        public final long start;
+
+        public final String programName;
+
+        /**
+         * Measurements, one per second.
+         */
+        public final List<Measurement> measurements = new ArrayList<>();
+
+        Recovery(long start, String programName) {
+            this.start = start;
+            this.programName = programName;
+        }
+
+        /**
+         * The last measurement.
+         */
+        public Measurement last() {
+            return measurements.get(measurements.size() - 1);
+        }
+
+        /**
+         * The snapshots of all measurements.
+         */
+        public List<Snapshot> snapshots() {
+            List<Snapshot> snapshots = new ArrayList<>(measurements.size());
+            for (Measurement measurement : measurements) {
+                snapshots.add(new Snapshot(measurement));
+            }
+            return snapshots;
+        }
+    }
+}
@@ -20,11 +20,27 @@ package svenmeier.coxswain.gym;
  */
 public class Measurement {
 
+    public static final int DURATION = 1 << 0;
+    public static final int DISTANCE = 1 << 1;
+    public static final int STROKES = 1 << 2;
+    public static final int SPEED = 1 << 3;
+    public static final int PULSE = 1 << 4;
+    public static final int STROKE_RATE = 1 << 5;
+    public static final int STROKE_RATIO = 1 << 6;
+    public static final int ENERGY = 1 << 7;
+
+    public static final int ALL = (1 << 8) - 1;
+
     /**
      * seconds
      */
     public int duration;
 
+    /**
+     * milliseconds, in sync with {@link #duration}
+     */
+    public int durationMillis;
+
     /**
      * meters
      */
@@ -58,7 +74,15 @@ public class Measurement {
     }
 
     public Measurement(Measurement measurement) {
+        set(measurement);
+    }
+
+    /**
+     * Set all values from the given measurement.
+     */
+    public void set(Measurement measurement) {
         this.duration = measurement.duration;
+        this.durationMillis = measurement.durationMillis;
         this.distance = measurement.distance;
         this.strokes = measurement.strokes;
         this.speed = measurement.speed;
@@ -67,4 +91,51 @@ public class Measurement {
         this.strokeRatio = measurement.strokeRatio;
         this.energy = measurement.energy;
     }
+
+    /**
+     * Changes compared to the given measurement.
+     *
+     * @return bitmask of changed values, e.g. {@link #DISTANCE}
+     */
+    public int changes(Measurement measurement) {
+        int changes = 0;
+
+        if (duration != measurement.duration || durationMillis != measurement.durationMillis) {
+            changes |= DURATION;
+        }
+        if (distance != measurement.distance) {
+            changes |= DISTANCE;
+        }
+        if (strokes != measurement.strokes) {
+            changes |= STROKES;
+        }
+        if (speed != measurement.speed) {
+            changes |= SPEED;
+        }
+        if (pulse != measurement.pulse) {
+            changes |= PULSE;
+        }
+        if (strokeRate != measurement.strokeRate) {
+            changes |= STROKE_RATE;
+        }
+        if (strokeRatio != measurement.strokeRatio) {
+            changes |= STROKE_RATIO;
+        }
+        if (energy != measurement.energy) {
+            changes |= ENERGY;
+        }
+
+        return changes;
+    }
+
+    /**
+     * Duration in seconds with sub-second precision.
+     */
+    public float getExactDuration() {
+        if (durationMillis / 1000 != duration) {
+            // no milliseconds
+            return duration;
+        }
+        return durationMillis / 1000f;
+    }
 }
\ No newline at end of file
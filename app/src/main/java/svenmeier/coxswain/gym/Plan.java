@@ -0,0 +1,188 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.gym;
+
+import java.util.List;
+
+/**
+ * An immutable plan compiled from the segments of a {@link Program}, so evaluating a
+ * measurement does not need to go through the segments' properties.
+ * <p>
+ * Kinds of targets and limits are the bits of {@link Measurement}'s fields.
+ */
+public class Plan {
+
+    /**
+     * Kind of a missing target or limit.
+     */
+    public static final int NONE = 0;
+
+    private final int[] targetKinds;
+
+    private final int[] targets;
+
+    private final int[] limitKinds;
+
+    private final int[] limits;
+
+    /**
+     * Each segment as duration.
+     *
+     * @see Segment#asDuration()
+     */
+    private final int[] durations;
+
+    /**
+     * Sum of durations of all segments before each segment.
+     */
+    private final int[] before;
+
+    private final int total;
+
+    public Plan(Program program) {
+        List<Segment> segments = program.getSegments();
+
+        int size = segments.size();
+        targetKinds = new int[size];
+        targets = new int[size];
+        limitKinds = new int[size];
+        limits = new int[size];
+        durations = new int[size];
+        before = new int[size];
+
+        int sum = 0;
+        for (int s = 0; s < size; s++) {
+            Segment segment = segments.get(s);
+
+            compileTarget(s, segment);
+            compileLimit(s, segment);
+
+            durations[s] = segment.asDuration();
+            before[s] = sum;
+            sum += durations[s];
+        }
+        total = sum;
+    }
+
+    private void compileTarget(int s, Segment segment) {
+        if (segment.distance.get() > 0) {
+            targetKinds[s] = Measurement.DISTANCE;
+            targets[s] = segment.distance.get();
+        } else if (segment.strokes.get() > 0) {
+            targetKinds[s] = Measurement.STROKES;
+            targets[s] = segment.strokes.get();
+        } else if (segment.energy.get() > 0) {
+            targetKinds[s] = Measurement.ENERGY;
+            targets[s] = segment.energy.get();
+        } else if (segment.duration.get() > 0) {
+            targetKinds[s] = Measurement.DURATION;
+            targets[s] = segment.duration.get();
+        }
+    }
+
+    private void compileLimit(int s, Segment segment) {
+        if (segment.speed.get() > 0) {
+            limitKinds[s] = Measurement.SPEED;
+            limits[s] = segment.speed.get();
+        } else if (segment.strokeRate.get() > 0) {
+            limitKinds[s] = Measurement.STROKE_RATE;
+            limits[s] = segment.strokeRate.get();
+        } else if (segment.pulse.get() > 0) {
+            limitKinds[s] = Measurement.PULSE;
+            limits[s] = segment.pulse.get();
+        }
+    }
+
+    public int size() {
+        return targets.length;
+    }
+
+    /**
+     * @return kind of target or {@link #NONE}
+     */
+    public int getTargetKind(int segment) {
+        return targetKinds[segment];
+    }
+
+    public int getTarget(int segment) {
+        return targets[segment];
+    }
+
+    /**
+     * @return kind of limit or {@link #NONE}
+     */
+    public int getLimitKind(int segment) {
+        return limitKinds[segment];
+    }
+
+    public int getLimit(int segment) {
+        return limits[segment];
+    }
+
+    public int getDuration(int segment) {
+        return durations[segment];
+    }
+
+    /**
+     * Total duration of all segments.
+     */
+    public int getDuration() {
+        return total;
+    }
+
+    /**
+     * Level of the whole plan.
+     *
+     * @param segment    current segment
+     * @param completion completion of the current segment
+     * @return level from {@code 0} to {@code 1}
+     */
+    public float level(int segment, float completion) {
+        if (total == 0) {
+            return 1f;
+        }
+
+        return (before[segment] + completion * durations[segment]) / total;
+    }
+
+    /**
+     * Value of a measurement's field.
+     *
+     * @param kind bit of the field, or {@link #NONE}
+     */
+    public static int value(Measurement measurement, int kind) {
+        switch (kind) {
+            case Measurement.DURATION:
+                return measurement.duration;
+            case Measurement.DISTANCE:
+                return measurement.distance;
+            case Measurement.STROKES:
+                return measurement.strokes;
+            case Measurement.SPEED:
+                return measurement.speed;
+            case Measurement.PULSE:
+                return measurement.pulse;
+            case Measurement.STROKE_RATE:
+                return measurement.strokeRate;
+            case Measurement.STROKE_RATIO:
+                return measurement.strokeRatio;
+            case Measurement.ENERGY:
+                return measurement.energy;
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.gym;
+
+import java.util.Calendar;
+
+import propoid.core.Property;
+import propoid.core.Propoid;
+
+/**
+ * Totals of all evaluated workouts in a day, week or month.
+ */
+public class Rollup extends Propoid {
+
+    public static final int DAY = 0;
+
+    public static final int WEEK = 1;
+
+    public static final int MONTH = 2;
+
+    public static final int[] PERIODS = {DAY, WEEK, MONTH};
+
+    /**
+     * {@link #DAY}, {@link #WEEK} or {@link #MONTH}
+     */
+    public final Property<Integer> period = property();
+
+    /**
+     * start of period in local time
+     *
+     * @see #start(int, long)
+     */
+    public final Property<Long> start = property();
+
+    /**
+     * number of workouts
+     */
+    public final Property<Integer> count = property();
+
+    /**
+     * seconds
+     */
+    public final Property<Integer> duration = property();
+
+    /**
+     * meters
+     */
+    public final Property<Integer> distance = property();
+
+    public final Property<Integer> strokes = property();
+
+    /**
+     * Calories
+     */
+    public final Property<Integer> energy = property();
+
+    public Rollup() {
+        count.set(0);
+        duration.set(0);
+        distance.set(0);
+        strokes.set(0);
+        energy.set(0);
+    }
+
+    public Rollup(int period, long start) {
+        this();
+
+        this.period.set(period);
+        this.start.set(start);
+    }
+
+    /**
+     * Add or subtract a workout.
+     *
+     * @param sign {@code 1} to add, {@code -1} to subtract
+     */
+    public void add(Workout workout, int sign) {
+        count.set(count.get() + sign);
+        duration.set(duration.get() + sign * workout.duration.get());
+        distance.set(distance.get() + sign * workout.distance.get());
+        strokes.set(strokes.get() + sign * workout.strokes.get());
+        energy.set(energy.get() + sign * workout.energy.get());
+    }
+
+    public boolean isEmpty() {
+        return count.get() <= 0;
+    }
+
+    /**
+     * Start of the period containing the given time, matching the units of the timeline.
+     */
+    public static long start(int period, long time) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+
+        switch (period) {
+            case DAY:
+                break;
+            case WEEK:
+                calendar.set(Calendar.DAY_OF_WEEK, calendar.getFirstDayOfWeek());
+                break;
+            case MONTH:
+                calendar.set(Calendar.DAY_OF_MONTH, 1);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown period " + period);
+        }
+
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.gym;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A measurement shared between threads, readers always get a consistent copy.
+ * <p>
+ * Writes are guarded by a sequence number that is odd while a write is in progress, readers
+ * retry their copy until the sequence is even and unchanged. Writers never wait for readers.
+ */
+public class SharedMeasurement {
+
+    private static final int DURATION = 0;
+    private static final int DISTANCE = 1;
+    private static final int STROKES = 2;
+    private static final int SPEED = 3;
+    private static final int PULSE = 4;
+    private static final int STROKE_RATE = 5;
+    private static final int STROKE_RATIO = 6;
+    private static final int ENERGY = 7;
+    private static final int DURATION_MILLIS = 8;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    private final AtomicIntegerArray values = new AtomicIntegerArray(9);
+
+    private final AtomicInteger retries = new AtomicInteger();
+
+    /**
+     * Write the given measurement.
+     */
+    public void write(Measurement measurement) {
+        int start;
+        while (true) {
+            start = sequence.get();
+            if ((start & 1) == 0 && sequence.compareAndSet(start, start + 1)) {
+                break;
+            }
+            // concurrent writer
+        }
+
+        values.set(DURATION, measurement.duration);
+        values.set(DISTANCE, measurement.distance);
+        values.set(STROKES, measurement.strokes);
+        values.set(SPEED, measurement.speed);
+        values.set(PULSE, measurement.pulse);
+        values.set(STROKE_RATE, measurement.strokeRate);
+        values.set(STROKE_RATIO, measurement.strokeRatio);
+        values.set(ENERGY, measurement.energy);
+        values.set(DURATION_MILLIS, measurement.durationMillis);
+
+        sequence.set(start + 2);
+    }
+
+    /**
+     * Read into the given measurement.
+     */
+    public void read(Measurement measurement) {
+        while (true) {
+            int start = sequence.get();
+            if ((start & 1) == 0) {
+                measurement.duration = values.get(DURATION);
+                measurement.distance = values.get(DISTANCE);
+                measurement.strokes = values.get(STROKES);
+                measurement.speed = values.get(SPEED);
+                measurement.pulse = values.get(PULSE);
+                measurement.strokeRate = values.get(STROKE_RATE);
+                measurement.strokeRatio = values.get(STROKE_RATIO);
+                measurement.energy = values.get(ENERGY);
+                measurement.durationMillis = values.get(DURATION_MILLIS);
+
+                if (sequence.get() == start) {
+                    return;
+                }
+            }
+
+            retries.incrementAndGet();
+        }
+    }
+
+    /**
+     * Count of reads that had to be retried because of a concurrent write.
+     */
+    public int getRetries() {
+        return retries.get();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.gym;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import propoid.core.Property;
+import propoid.core.Propoid;
+
+/**
+ * Consecutive snapshots of a workout, encoded with {@link SnapshotCodec}.
+ */
+public class SnapshotChunk extends Propoid {
+
+    /**
+     * Maximum count of snapshots in a chunk.
+     */
+    public static final int SIZE = 300;
+
+    public final Property<Workout> workout = property();
+
+    /**
+     * index of first snapshot in workout
+     */
+    public final Property<Integer> first = property();
+
+    /**
+     * count of snapshots
+     */
+    public final Property<Integer> count = property();
+
+    public final Property<byte[]> data = property();
+
+    /**
+     * Columns of snapshots while recording.
+     */
+    private int[][] columns;
+
+    public SnapshotChunk() {
+        first.set(0);
+        count.set(0);
+    }
+
+    public SnapshotChunk(Workout workout, int first) {
+        this.workout.set(workout);
+        this.first.set(first);
+        this.count.set(0);
+    }
+
+    /**
+     * A detached copy of the given chunk, without its workout.
+     */
+    public SnapshotChunk(SnapshotChunk chunk) {
+        set(chunk);
+    }
+
+    /**
+     * Set first, count and data from the given chunk.
+     */
+    public void set(SnapshotChunk chunk) {
+        this.first.set(chunk.first.get());
+        this.count.set(chunk.count.get());
+        this.data.set(chunk.data.get());
+    }
+
+    public boolean isFull() {
+        return count.get() == SIZE;
+    }
+
+    /**
+     * Add a snapshot.
+     */
+    public void add(Measurement measurement) {
+        if (columns == null) {
+            columns = new int[SnapshotCodec.COLUMNS][SIZE];
+        }
+
+        int index = count.get();
+        columns[SnapshotCodec.DISTANCE][index] = measurement.distance;
+        columns[SnapshotCodec.STROKES][index] = measurement.strokes;
+        columns[SnapshotCodec.SPEED][index] = measurement.speed;
+        columns[SnapshotCodec.PULSE][index] = measurement.pulse;
+        columns[SnapshotCodec.STROKE_RATE][index] = measurement.strokeRate;
+        columns[SnapshotCodec.STROKE_RATIO][index] = measurement.strokeRatio;
+        columns[SnapshotCodec.ENERGY][index] = measurement.energy;
+        columns[SnapshotCodec.TIME][index] = first.get() + index;
+
+        count.set(index + 1);
+        data.set(SnapshotCodec.encode(columns, 0, index + 1));
+    }
+
+    /**
+     * Split the given snapshots into chunks.
+     */
+    public static List<SnapshotChunk> split(Workout workout, List<Snapshot> snapshots) {
+        List<SnapshotChunk> chunks = new ArrayList<>();
+
+        int[][] columns = new int[SnapshotCodec.COLUMNS][SIZE];
+        for (int first = 0; first < snapshots.size(); first += SIZE) {
+            int count = Math.min(SIZE, snapshots.size() - first);
+
+            for (int r = 0; r < count; r++) {
+                Snapshot snapshot = snapshots.get(first + r);
+
+                columns[SnapshotCodec.DISTANCE][r] = snapshot.distance.get();
+                columns[SnapshotCodec.STROKES][r] = snapshot.strokes.get();
+                columns[SnapshotCodec.SPEED][r] = snapshot.speed.get();
+                columns[SnapshotCodec.PULSE][r] = snapshot.pulse.get();
+                columns[SnapshotCodec.STROKE_RATE][r] = snapshot.strokeRate.get();
+                columns[SnapshotCodec.STROKE_RATIO][r] = snapshot.strokeRatio.get();
+                columns[SnapshotCodec.ENERGY][r] = snapshot.energy.get();
+                columns[SnapshotCodec.TIME][r] = first + r;
+            }
+
+            SnapshotChunk chunk = new SnapshotChunk(workout, first);
+            chunk.count.set(count);
+            chunk.data.set(SnapshotCodec.encode(columns, 0, count));
+            chunks.add(chunk);
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Split a series into chunks, keeping its time column.
+     */
+    public static List<SnapshotChunk> split(Workout workout, SnapshotSeries series) {
+        List<SnapshotChunk> chunks = new ArrayList<>();
+
+        int[][] columns = series.columns();
+        for (int first = 0; first < series.size(); first += SIZE) {
+            int count = Math.min(SIZE, series.size() - first);
+
+            SnapshotChunk chunk = new SnapshotChunk(workout, first);
+            chunk.count.set(count);
+            chunk.data.set(SnapshotCodec.encode(columns, first, count));
+            chunks.add(chunk);
+        }
+
+        return chunks;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.gym;
+
+import java.util.Arrays;
+
+/**
+ * Encodes columns of snapshot values, each value as the zigzag varint of its delta to the previous
+ * value in its column, runs of unchanged values as a single varint of their length.
+ */
+public class SnapshotCodec {
+
+    public static final int DISTANCE = 0;
+    public static final int STROKES = 1;
+    public static final int SPEED = 2;
+    public static final int PULSE = 3;
+    public static final int STROKE_RATE = 4;
+    public static final int STROKE_RATIO = 5;
+    public static final int ENERGY = 6;
+    public static final int TIME = 7;
+
+    public static final int COLUMNS = 8;
+
+    private static final int VERSION = 1;
+
+    /**
+     * Encode rows of the given columns.
+     *
+     * @param columns columns to encode
+     * @param offset index of first row
+     * @param count count of rows
+     */
+    public static byte[] encode(int[][] columns, int offset, int count) {
+        // at most five bytes per varint
+        byte[] data = new byte[3 * 5 + columns.length * count * 5];
+
+        int index = 0;
+        index = write(data, index, VERSION);
+        index = write(data, index, columns.length);
+        index = write(data, index, count);
+
+        for (int[] column : columns) {
+            int previous = 0;
+            int r = offset;
+            while (r < offset + count) {
+                int value = column[r];
+
+                if (value == previous) {
+                    int run = 1;
+                    while (r + run < offset + count && column[r + run] == previous) {
+                        run++;
+                    }
+
+                    index = write(data, index, ((long)run << 1) | 1);
+                    r += run;
+                } else {
+                    index = write(data, index, zigzag(value - previous) << 1);
+                    r++;
+                }
+
+                previous = value;
+            }
+        }
+
+        byte[] trimmed = new byte[index];
+        System.arraycopy(data, 0, trimmed, 0, index);
+        return trimmed;
+    }
+
+    /**
+     * Count of encoded rows.
+     */
+    public static int count(byte[] data) {
+        int[] index = new int[1];
+
+        checkVersion(data, index);
+
+        read(data, index);
+        return (int)read(data, index);
+    }
+
+    /**
+     * Decode into the given columns, superfluous encoded columns are skipped.
+     *
+     * @param data encoded rows
+     * @param columns columns to decode into
+     * @param offset index of first row
+     * @return count of decoded rows
+     */
+    public static int decode(byte[] data, int[][] columns, int offset) {
+        int[] index = new int[1];
+
+        checkVersion(data, index);
+
+        int encoded = (int)read(data, index);
+        int count = (int)read(data, index);
+
+        for (int c = 0; c < encoded; c++) {
+            int[] column = c < columns.length ? columns[c] : null;
+
+            int previous = 0;
+            int r = 0;
+            while (r < count) {
+                long token = read(data, index);
+
+                if ((token & 1) == 1) {
+                    int run = (int)(token >>> 1);
+                    if (column != null) {
+                        Arrays.fill(column, offset + r, offset + r + run, previous);
+                    }
+                    r += run;
+                } else {
+                    previous += unzigzag(token >>> 1);
+                    if (column != null) {
+                        column[offset + r] = previous;
+                    }
+                    r++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    private static void checkVersion(byte[] data, int[] index) {
+        int actual = (int)read(data, index);
+        if (actual != VERSION) {
+            throw new IllegalArgumentException("unsupported version " + actual);
+        }
+    }
+
+    private static long read(byte[] data, int[] index) {
+        long value = 0;
+
+        for (int shift = 0; ; shift += 7) {
+            byte b = data[index[0]++];
+
+            value |= (long)(b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static int write(byte[] data, int index, long value) {
+        while ((value & ~0x7FL) != 0) {
+            data[index++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[index++] = (byte)value;
+
+        return index;
+    }
+
+    private static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private static int unzigzag(long value) {
+        return (int)(value >>> 1) ^ -(int)(value & 1);
+    }
+}
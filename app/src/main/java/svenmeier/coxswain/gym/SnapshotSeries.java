@@ -0,0 +1,256 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.gym;
+
+import java.util.List;
+
+/**
+ * Snapshots of a workout in columns.
+ * <p>
+ * Series loaded by {@link svenmeier.coxswain.Gym} are shared, so they must not be modified.
+ */
+public class SnapshotSeries {
+
+    /**
+     * seconds into the workout
+     */
+    public final int[] time;
+
+    /**
+     * meters
+     */
+    public final int[] distance;
+
+    public final int[] strokes;
+
+    /**
+     * centimeters per second
+     */
+    public final int[] speed;
+
+    /**
+     * beats per minute
+     */
+    public final int[] pulse;
+
+    /**
+     * strokes per minute
+     */
+    public final int[] strokeRate;
+
+    public final int[] strokeRatio;
+
+    /**
+     * kilo calories
+     */
+    public final int[] energy;
+
+    public SnapshotSeries(int size) {
+        time = new int[size];
+        distance = new int[size];
+        strokes = new int[size];
+        speed = new int[size];
+        pulse = new int[size];
+        strokeRate = new int[size];
+        strokeRatio = new int[size];
+        energy = new int[size];
+
+        for (int index = 0; index < size; index++) {
+            time[index] = index;
+        }
+    }
+
+    public SnapshotSeries(List<Snapshot> snapshots) {
+        this(snapshots.size());
+
+        for (int index = 0; index < snapshots.size(); index++) {
+            Snapshot snapshot = snapshots.get(index);
+
+            distance[index] = snapshot.distance.get();
+            strokes[index] = snapshot.strokes.get();
+            speed[index] = snapshot.speed.get();
+            pulse[index] = snapshot.pulse.get();
+            strokeRate[index] = snapshot.strokeRate.get();
+            strokeRatio[index] = snapshot.strokeRatio.get();
+            energy[index] = snapshot.energy.get();
+        }
+    }
+
+    public int size() {
+        return time.length;
+    }
+
+    public boolean isEmpty() {
+        return time.length == 0;
+    }
+
+    /**
+     * Bytes held by all columns.
+     */
+    public int getByteSize() {
+        return time.length * SnapshotCodec.COLUMNS * 4;
+    }
+
+    /**
+     * Index of the snapshot at the given time.
+     *
+     * @param time seconds into the workout
+     * @return index of the last snapshot not after the time, or {@code -1}
+     */
+    public int indexOf(int time) {
+        int low = 0;
+        int high = this.time.length - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+
+            if (this.time[middle] <= time) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return high;
+    }
+
+    /**
+     * Distance at the given time, interpolated linearly between snapshots.
+     *
+     * @param time seconds into the workout
+     * @return meters
+     */
+    public float distanceAt(float time) {
+        if (isEmpty()) {
+            return 0;
+        }
+
+        int index = indexOf((int) Math.floor(time));
+
+        float fromTime;
+        float fromDistance;
+        if (index < 0) {
+            // start from zero one second before the first snapshot
+            fromTime = this.time[0] - 1;
+            fromDistance = 0;
+        } else {
+            fromTime = this.time[index];
+            fromDistance = distance[index];
+        }
+
+        if (index + 1 >= size()) {
+            return fromDistance;
+        }
+
+        float toTime = this.time[index + 1];
+        float toDistance = distance[index + 1];
+
+        float fraction = Math.max(0, Math.min(1, (time - fromTime) / (toTime - fromTime)));
+
+        return fromDistance + (toDistance - fromDistance) * fraction;
+    }
+
+    /**
+     * Downsample with min/max buckets: of all snapshots within each bucket of seconds, only those
+     * with the minimum and maximum speed are kept, as well as the very first and last snapshot.
+     * <p>
+     * Thus the shape of the speed curve is preserved and kept snapshots are less than two buckets
+     * apart.
+     *
+     * @param bucket seconds of each bucket
+     * @return downsampled series
+     */
+    public SnapshotSeries downsample(int bucket) {
+        int[] keep = new int[size()];
+        int kept = 0;
+
+        int index = 0;
+        while (index < size()) {
+            int end = index;
+            int min = index;
+            int max = index;
+            while (end < size() && time[end] / bucket == time[index] / bucket) {
+                if (speed[end] < speed[min]) {
+                    min = end;
+                }
+                if (speed[end] > speed[max]) {
+                    max = end;
+                }
+                end++;
+            }
+
+            if (index == 0 && min != 0 && max != 0) {
+                keep[kept++] = 0;
+            }
+            keep[kept++] = Math.min(min, max);
+            if (min != max) {
+                keep[kept++] = Math.max(min, max);
+            }
+            if (end == size() && keep[kept - 1] != end - 1) {
+                keep[kept++] = end - 1;
+            }
+
+            index = end;
+        }
+
+        SnapshotSeries series = new SnapshotSeries(kept);
+        int[][] from = columns();
+        int[][] to = series.columns();
+        for (int column = 0; column < SnapshotCodec.COLUMNS; column++) {
+            for (int k = 0; k < kept; k++) {
+                to[column][k] = from[column][keep[k]];
+            }
+        }
+        return series;
+    }
+
+    /**
+     * The columns in order of {@link SnapshotCodec}.
+     */
+    int[][] columns() {
+        int[][] columns = new int[SnapshotCodec.COLUMNS][];
+
+        columns[SnapshotCodec.DISTANCE] = distance;
+        columns[SnapshotCodec.STROKES] = strokes;
+        columns[SnapshotCodec.SPEED] = speed;
+        columns[SnapshotCodec.PULSE] = pulse;
+        columns[SnapshotCodec.STROKE_RATE] = strokeRate;
+        columns[SnapshotCodec.STROKE_RATIO] = strokeRatio;
+        columns[SnapshotCodec.ENERGY] = energy;
+        columns[SnapshotCodec.TIME] = time;
+
+        return columns;
+    }
+
+    /**
+     * Decode the given chunks.
+     */
+    public static SnapshotSeries decode(List<SnapshotChunk> chunks) {
+        int size = 0;
+        for (SnapshotChunk chunk : chunks) {
+            size = Math.max(size, chunk.first.get() + SnapshotCodec.count(chunk.data.get()));
+        }
+
+        SnapshotSeries series = new SnapshotSeries(size);
+
+        int[][] columns = series.columns();
+        for (SnapshotChunk chunk : chunks) {
+            SnapshotCodec.decode(chunk.data.get(), columns, chunk.first.get());
+        }
+
+        return series;
+    }
+}
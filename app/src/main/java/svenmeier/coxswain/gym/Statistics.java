@@ -0,0 +1,153 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.gym;
+
+/**
+ * Accumulates statistics of a workout, one snapshot per second.
+ * <p>
+ * Zero values are ignored for minimum and average, as they signal a missing sensor or a pause,
+ * the floor includes them though.
+ */
+public class Statistics {
+
+    public static final int ZONES = 5;
+
+    private final int pulseMax;
+
+    private final Metric speed = new Metric();
+
+    private final Metric pulse = new Metric();
+
+    private final Metric strokeRate = new Metric();
+
+    private final Metric strokeRatio = new Metric();
+
+    /**
+     * Seconds in each heart rate zone.
+     */
+    private final int[] zones = new int[ZONES];
+
+    /**
+     * @param pulseMax maximum heart rate to derive zones from
+     */
+    public Statistics(int pulseMax) {
+        this.pulseMax = pulseMax;
+    }
+
+    public void add(Measurement measurement) {
+        add(measurement.speed, measurement.pulse, measurement.strokeRate, measurement.strokeRatio);
+    }
+
+    public void add(SnapshotSeries series) {
+        for (int index = 0; index < series.size(); index++) {
+            add(series.speed[index], series.pulse[index], series.strokeRate[index], series.strokeRatio[index]);
+        }
+    }
+
+    private void add(int speed, int pulse, int strokeRate, int strokeRatio) {
+        this.speed.add(speed);
+        this.pulse.add(pulse);
+        this.strokeRate.add(strokeRate);
+        this.strokeRatio.add(strokeRatio);
+
+        if (pulse > 0) {
+            zones[zone(pulse, pulseMax)]++;
+        }
+    }
+
+    /**
+     * Apply the current statistics to the given workout, marking its statistics as computed.
+     */
+    public void apply(Workout workout) {
+        workout.statistics.set(true);
+
+        workout.speedMin.set(speed.min());
+        workout.speedFloor.set(speed.floor());
+        workout.speedMax.set(speed.max);
+        workout.speedAverage.set(speed.average());
+
+        workout.pulseMin.set(pulse.min());
+        workout.pulseFloor.set(pulse.floor());
+        workout.pulseMax.set(pulse.max);
+        workout.pulseAverage.set(pulse.average());
+
+        workout.strokeRateMin.set(strokeRate.min());
+        workout.strokeRateFloor.set(strokeRate.floor());
+        workout.strokeRateMax.set(strokeRate.max);
+        workout.strokeRateAverage.set(strokeRate.average());
+
+        workout.strokeRatioMin.set(strokeRatio.min());
+        workout.strokeRatioMax.set(strokeRatio.max);
+        workout.strokeRatioAverage.set(strokeRatio.average());
+
+        workout.pulseZone1.set(zones[0]);
+        workout.pulseZone2.set(zones[1]);
+        workout.pulseZone3.set(zones[2]);
+        workout.pulseZone4.set(zones[3]);
+        workout.pulseZone5.set(zones[4]);
+    }
+
+    /**
+     * Heart rate zone of the given pulse, starting at 50%, 60%, 70%, 80% and 90% of the maximum.
+     *
+     * @return index of zone, lower pulses are counted in the first zone
+     */
+    public static int zone(int pulse, int pulseMax) {
+        int zone = (pulse * 10 / Math.max(pulseMax, 1)) - 5;
+
+        return Math.max(0, Math.min(ZONES - 1, zone));
+    }
+
+    private static class Metric {
+
+        private int min = Integer.MAX_VALUE;
+
+        private int floor = Integer.MAX_VALUE;
+
+        private int max;
+
+        private long sum;
+
+        private int count;
+
+        public void add(int value) {
+            floor = Math.min(floor, value);
+
+            if (value > 0) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+
+                sum += value;
+                count++;
+            }
+        }
+
+        public int min() {
+            return count == 0 ? 0 : min;
+        }
+
+        /**
+         * Minimum including zero values.
+         */
+        public int floor() {
+            return floor == Integer.MAX_VALUE ? 0 : floor;
+        }
+
+        public int average() {
+            return count == 0 ? 0 : Math.round((float)sum / count);
+        }
+    }
+}
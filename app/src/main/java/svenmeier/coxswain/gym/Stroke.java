@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.gym;
+
+import propoid.core.Property;
+import propoid.core.Propoid;
+
+/**
+ * A single stroke of a workout.
+ */
+public class Stroke extends Propoid {
+
+    public final Property<Workout> workout = property();
+
+    /**
+     * milliseconds into the workout
+     */
+    public final Property<Integer> driveStart = property();
+
+    /**
+     * milliseconds into the workout
+     */
+    public final Property<Integer> driveEnd = property();
+
+    /**
+     * milliseconds into the workout
+     */
+    public final Property<Integer> recoveryEnd = property();
+
+    /**
+     * meters
+     */
+    public final Property<Integer> distance = property();
+
+    /**
+     * centimeters per second
+     */
+    public final Property<Integer> peakSpeed = property();
+
+    public Stroke() {
+        driveStart.set(0);
+        driveEnd.set(0);
+        recoveryEnd.set(0);
+        distance.set(0);
+        peakSpeed.set(0);
+    }
+
+    public Stroke(int driveStart, int driveEnd, int recoveryEnd, int distance, int peakSpeed) {
+        this.driveStart.set(driveStart);
+        this.driveEnd.set(driveEnd);
+        this.recoveryEnd.set(recoveryEnd);
+        this.distance.set(distance);
+        this.peakSpeed.set(peakSpeed);
+    }
+
+    /**
+     * A detached copy of the given stroke, without its workout.
+     */
+    public Stroke(Stroke stroke) {
+        this(stroke.driveStart.get(), stroke.driveEnd.get(), stroke.recoveryEnd.get(), stroke.distance.get(), stroke.peakSpeed.get());
+    }
+
+    /**
+     * Duration of the drive in milliseconds.
+     */
+    public int getDrive() {
+        return driveEnd.get() - driveStart.get();
+    }
+
+    /**
+     * Duration of the recovery in milliseconds.
+     */
+    public int getRecovery() {
+        return recoveryEnd.get() - driveEnd.get();
+    }
+}
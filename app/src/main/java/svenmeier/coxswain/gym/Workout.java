@@ -53,12 +53,83 @@ public class Workout extends Propoid {
      */
     public final Property<Boolean> evaluate = property();
 
+    /**
+     * snapshots were downsampled for retention
+     */
+    public final Property<Boolean> downsampled = property();
+
+    /**
+     * statistics were computed
+     */
+    public final Property<Boolean> statistics = property();
+
+    /**
+     * centimeters per second
+     */
+    public final Property<Integer> speedMin = property();
+
+    /**
+     * minimum including zero values, e.g. for charts
+     */
+    public final Property<Integer> speedFloor = property();
+
+    public final Property<Integer> speedMax = property();
+
+    public final Property<Integer> speedAverage = property();
+
+    /**
+     * beats per minute
+     */
+    public final Property<Integer> pulseMin = property();
+
+    public final Property<Integer> pulseFloor = property();
+
+    public final Property<Integer> pulseMax = property();
+
+    public final Property<Integer> pulseAverage = property();
+
+    /**
+     * strokes per minute
+     */
+    public final Property<Integer> strokeRateMin = property();
+
+    public final Property<Integer> strokeRateFloor = property();
+
+    public final Property<Integer> strokeRateMax = property();
+
+    public final Property<Integer> strokeRateAverage = property();
+
+    public final Property<Integer> strokeRatioMin = property();
+
+    public final Property<Integer> strokeRatioMax = property();
+
+    public final Property<Integer> strokeRatioAverage = property();
+
+    /**
+     * seconds in heart rate zones
+     *
+     * @see Statistics#zone(int, int)
+     */
+    public final Property<Integer> pulseZone1 = property();
+
+    public final Property<Integer> pulseZone2 = property();
+
+    public final Property<Integer> pulseZone3 = property();
+
+    public final Property<Integer> pulseZone4 = property();
+
+    public final Property<Integer> pulseZone5 = property();
+
     public Workout() {
         this.duration.set(0);
         this.distance.set(0);
         this.strokes.set(0);
         this.energy.set(0);
         this.evaluate.set(true);
+        this.downsampled.set(false);
+
+        new Statistics(0).apply(this);
+        this.statistics.set(false);
     }
 
     public Workout(Program program) {
@@ -68,6 +139,51 @@ public class Workout extends Propoid {
         this.start.set(System.currentTimeMillis());
     }
 
+    /**
+     * A detached copy of the given workout.
+     */
+    public Workout(Workout workout) {
+        set(workout);
+    }
+
+    /**
+     * Set all values from the given workout.
+     */
+    public void set(Workout workout) {
+        this.program.set(workout.program.get());
+        this.location.set(workout.location.get());
+        this.start.set(workout.start.get());
+        this.duration.set(workout.duration.get());
+        this.distance.set(workout.distance.get());
+        this.strokes.set(workout.strokes.get());
+        this.energy.set(workout.energy.get());
+        this.evaluate.set(workout.evaluate.get());
+        this.downsampled.set(workout.downsampled.get());
+        this.statistics.set(workout.statistics.get());
+
+        this.speedMin.set(workout.speedMin.get());
+        this.speedFloor.set(workout.speedFloor.get());
+        this.speedMax.set(workout.speedMax.get());
+        this.speedAverage.set(workout.speedAverage.get());
+        this.pulseMin.set(workout.pulseMin.get());
+        this.pulseFloor.set(workout.pulseFloor.get());
+        this.pulseMax.set(workout.pulseMax.get());
+        this.pulseAverage.set(workout.pulseAverage.get());
+        this.strokeRateMin.set(workout.strokeRateMin.get());
+        this.strokeRateFloor.set(workout.strokeRateFloor.get());
+        this.strokeRateMax.set(workout.strokeRateMax.get());
+        this.strokeRateAverage.set(workout.strokeRateAverage.get());
+        this.strokeRatioMin.set(workout.strokeRatioMin.get());
+        this.strokeRatioMax.set(workout.strokeRatioMax.get());
+        this.strokeRatioAverage.set(workout.strokeRatioAverage.get());
+
+        this.pulseZone1.set(workout.pulseZone1.get());
+        this.pulseZone2.set(workout.pulseZone2.get());
+        this.pulseZone3.set(workout.pulseZone3.get());
+        this.pulseZone4.set(workout.pulseZone4.get());
+        this.pulseZone5.set(workout.pulseZone5.get());
+    }
+
 	/**
      * Handle a new measurement.
      *
@@ -89,6 +205,33 @@ public class Workout extends Propoid {
         }
     }
 
+    /**
+     * Have statistics been computed for this workout, workouts from older versions have none.
+     */
+    public boolean hasStatistics() {
+        return Boolean.TRUE.equals(statistics.get()) && speedFloor.get() != null;
+    }
+
+    /**
+     * Have the snapshots of this workout been downsampled, workouts from older versions have not.
+     */
+    public boolean isDownsampled() {
+        return Boolean.TRUE.equals(downsampled.get());
+    }
+
+    /**
+     * Get the average split.
+     *
+     * @param splitDistance meters
+     * @return seconds per split distance
+     */
+    public float getSplit(int splitDistance) {
+        if (distance.get() == 0) {
+            return 0;
+        }
+        return duration.get() * splitDistance / (float) distance.get();
+    }
+
     /**
      * Get the name of this workout's program.
      *
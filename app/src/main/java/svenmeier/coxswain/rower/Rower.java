@@ -15,14 +15,32 @@
  */
 package svenmeier.coxswain.rower;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 import propoid.core.Property;
 import svenmeier.coxswain.gym.Measurement;
+import svenmeier.coxswain.gym.Stroke;
 import svenmeier.coxswain.gym.Workout;
 
 /**
  */
 public abstract class Rower extends Measurement {
 
+    private Listener listener;
+
+    /**
+     * Values of last publication.
+     */
+    private final Measurement published = new Measurement();
+
+    private boolean unpublished = true;
+
+    /**
+     * Completed strokes not yet polled.
+     */
+    private final Queue<Stroke> completed = new ConcurrentLinkedQueue<>();
+
     /**
      * Open the rower.
      */
@@ -32,6 +50,7 @@ public abstract class Rower extends Measurement {
 
     public void reset() {
         duration = 0;
+        durationMillis = 0;
         distance = 0;
         strokes = 0;
         speed = 0;
@@ -39,6 +58,47 @@ public abstract class Rower extends Measurement {
         strokeRate = 0;
         strokeRatio = 0;
         energy = 0;
+
+        unpublished = true;
+
+        completed.clear();
+    }
+
+    /**
+     * A stroke was completed, called on the rowing thread.
+     */
+    protected void onStroke(Stroke stroke) {
+        completed.add(stroke);
+    }
+
+    /**
+     * Poll the next completed stroke, may be called from any thread.
+     *
+     * @return stroke or {@code null}
+     */
+    public Stroke pollStroke() {
+        return completed.poll();
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Publish changes since the last publication to the listener, all values are published
+     * initially and after {@link #reset()}.
+     */
+    public void publish() {
+        int changes = unpublished ? ALL : changes(published);
+
+        if (changes != 0) {
+            published.set(this);
+            unpublished = false;
+
+            if (listener != null) {
+                listener.onChanged(this, changes);
+            }
+        }
     }
 
     /**
@@ -54,4 +114,14 @@ public abstract class Rower extends Measurement {
     public abstract void close();
 
     public abstract String getName();
+
+    public interface Listener {
+
+        /**
+         * The rower's values have changed.
+         *
+         * @param changes bitmask of changed values, e.g. {@link Measurement#DISTANCE}
+         */
+        void onChanged(Rower rower, int changes);
+    }
 }
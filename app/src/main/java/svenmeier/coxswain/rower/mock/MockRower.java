@@ -79,6 +79,7 @@ public class MockRower extends Rower {
                 // delay before achieving anything
 
                 duration = (int)(now - startAt) / 1000;
+                durationMillis = (int)(now - startAt);
 
                 distance = (int)((now - startAt) * speedTemp) / 1000;
 
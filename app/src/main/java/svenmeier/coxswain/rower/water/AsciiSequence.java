@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.rower.water;
+
+/**
+ * A reusable view on ASCII bytes, allowing to trace them without creating a {@link String}
+ * unless the trace actually writes them.
+ */
+public class AsciiSequence implements CharSequence {
+
+    private byte[] buffer;
+
+    private int start;
+
+    private int end;
+
+    public AsciiSequence set(byte[] buffer, int start, int end) {
+        this.buffer = buffer;
+        this.start = start;
+        this.end = end;
+
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char)(buffer[start + index] & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString(buffer, this.start + start, this.start + end);
+    }
+
+    @Override
+    public String toString() {
+        return toString(buffer, start, end);
+    }
+
+    public static String toString(byte[] buffer, int start, int end) {
+        char[] chars = new char[end - start];
+        for (int c = 0; c < chars.length; c++) {
+            chars[c] = (char)(buffer[start + c] & 0xFF);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.rower.water;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import svenmeier.coxswain.rower.water.usb.RingBuffer;
+
+/**
+ * A trace writing compact binary records, each with a timestamp in nanoseconds, the direction
+ * and the raw message.
+ * <p>
+ * Records are handed over to a background writer, so tracing does not block the caller. Files
+ * are rotated when exceeding a maximum length.
+ *
+ * @see #convert(Appendable)
+ */
+public class BinaryTrace implements ITrace {
+
+    static final byte[] MAGIC = {'C', 'X', 'T', '1'};
+
+    /**
+     * Timestamp, direction and length.
+     */
+    static final int HEADER = 8 + 1 + 2;
+
+    static final int MAX_MESSAGE = 1024;
+
+    private static final int CAPACITY = 64 * 1024;
+
+    private static final long WRITE_INTERVAL = 200;
+
+    private final File file;
+
+    private final long maxLength;
+
+    private final int rotations;
+
+    private final boolean compress;
+
+    private final RingBuffer ring = new RingBuffer(CAPACITY);
+
+    private final byte[] record = new byte[HEADER + MAX_MESSAGE];
+
+    private final Thread writer;
+
+    private volatile boolean closed;
+
+    private int lost;
+
+    /**
+     * @param file file to write to
+     * @param maxLength maximum length of each file before it is rotated
+     * @param rotations count of rotated files to keep
+     * @param compress whether to compress files
+     */
+    public BinaryTrace(File file, long maxLength, int rotations, boolean compress) {
+        this.file = file;
+        this.maxLength = maxLength;
+        this.rotations = rotations;
+        this.compress = compress;
+
+        writer = new Thread(new Writer(), "trace-writer");
+        writer.start();
+    }
+
+    @Override
+    public void comment(CharSequence string) {
+        trace('#', string);
+    }
+
+    @Override
+    public void onOutput(CharSequence string) {
+        trace('>', string);
+    }
+
+    @Override
+    public void onInput(CharSequence string) {
+        trace('<', string);
+    }
+
+    private void trace(char direction, CharSequence message) {
+        int length = Math.min(message.length(), MAX_MESSAGE);
+        if (ring.free() < HEADER + length) {
+            // writer cannot keep up
+            lost++;
+            return;
+        }
+
+        long now = System.nanoTime();
+        for (int b = 7; b >= 0; b--) {
+            record[b] = (byte)now;
+            now >>>= 8;
+        }
+        record[8] = (byte)direction;
+        record[9] = (byte)(length >>> 8);
+        record[10] = (byte)length;
+
+        for (int c = 0; c < length; c++) {
+            record[HEADER + c] = (byte)message.charAt(c);
+        }
+
+        ring.write(record, 0, HEADER + length);
+    }
+
+    /**
+     * Count of records lost because the writer did not keep up.
+     */
+    public int getLost() {
+        return lost;
+    }
+
+    /**
+     * Close and wait for all records to be written.
+     */
+    @Override
+    public void close() {
+        closed = true;
+
+        writer.interrupt();
+        try {
+            writer.join();
+        } catch (InterruptedException ignore) {
+        }
+    }
+
+    /**
+     * Convert all files, rotated ones first, to the text format.
+     *
+     * @see #convert(InputStream, Appendable)
+     */
+    public void convert(Appendable output) throws IOException {
+        for (int r = rotations; r >= 0; r--) {
+            File file = rotated(r);
+            if (file.exists()) {
+                InputStream input = new FileInputStream(file);
+                try {
+                    convert(input, output);
+                } finally {
+                    input.close();
+                }
+            }
+        }
+    }
+
+    private File rotated(int rotation) {
+        if (rotation == 0) {
+            return file;
+        }
+        return new File(file.getParentFile(), file.getName() + "." + rotation);
+    }
+
+    /**
+     * Convert binary records, optionally compressed, to the text format, one line per record
+     * with the direction followed by the message.
+     */
+    public static void convert(InputStream input, Appendable output) throws IOException {
+        TraceReader reader = TraceReader.open(input);
+
+        while (reader.next()) {
+            output.append(reader.direction());
+            output.append(reader.message());
+            output.append('\n');
+        }
+    }
+
+    private class Writer implements Runnable {
+
+        private OutputStream output;
+
+        private long written;
+
+        private final byte[] bytes = new byte[HEADER + MAX_MESSAGE];
+
+        @Override
+        public void run() {
+            try {
+                open();
+
+                while (true) {
+                    boolean closing = closed;
+
+                    while (ring.available() > 0) {
+                        ring.read(bytes, 0, HEADER);
+                        int length = ((bytes[9] & 0xFF) << 8) | (bytes[10] & 0xFF);
+                        ring.read(bytes, HEADER, length);
+
+                        if (written + HEADER + length > maxLength) {
+                            rotate();
+                        }
+
+                        output.write(bytes, 0, HEADER + length);
+                        written += HEADER + length;
+                    }
+
+                    if (closing) {
+                        break;
+                    }
+
+                    output.flush();
+
+                    try {
+                        Thread.sleep(WRITE_INTERVAL);
+                    } catch (InterruptedException closingNow) {
+                    }
+                }
+            } catch (IOException ignore) {
+            } finally {
+                close();
+            }
+        }
+
+        private void open() throws IOException {
+            output = new FileOutputStream(file);
+            if (compress) {
+                output = new GZIPOutputStream(output);
+            }
+            output = new BufferedOutputStream(output);
+
+            output.write(MAGIC);
+            written = MAGIC.length;
+        }
+
+        private void rotate() throws IOException {
+            output.close();
+
+            for (int r = rotations; r > 0; r--) {
+                File from = rotated(r - 1);
+                File to = rotated(r);
+
+                to.delete();
+                from.renameTo(to);
+            }
+
+            open();
+        }
+
+        private void close() {
+            if (output != null) {
+                try {
+                    output.close();
+                } catch (IOException ignore) {
+                }
+                output = null;
+            }
+        }
+    }
+}
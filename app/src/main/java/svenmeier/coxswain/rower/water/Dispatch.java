@@ -0,0 +1,183 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.rower.water;
+
+/**
+ * Dispatch of messages to fields, independent from the count of fields.
+ * <p>
+ * Responses of {@link NumberField}s are looked up by their size and address, all other
+ * fields by the first character of their response, preferring longer responses.
+ */
+class Dispatch {
+
+    private static final int ADDRESSES = 0x1000;
+
+    /**
+     * Size character, followed by three hex digits of the address.
+     */
+    private static final int NUMBER_PREFIX = 2;
+
+    private static final int NUMBER_HEADER = 6;
+
+    private final Field[] numbers = new Field[NumberField.TRIPLE_BYTE * ADDRESSES];
+
+    private final Field[][] prefixes = new Field[128][];
+
+    public void add(Field field) {
+        if (field.response == null) {
+            return;
+        }
+
+        if (field instanceof NumberField) {
+            NumberField number = (NumberField)field;
+
+            numbers[index(number.size, number.address)] = field;
+        } else {
+            int first = field.response.charAt(0) & 0x7F;
+
+            Field[] candidates = prefixes[first];
+            if (candidates == null) {
+                candidates = new Field[0];
+            }
+
+            // keep longer responses first
+            Field[] added = new Field[candidates.length + 1];
+            int a = 0;
+            int c = 0;
+            while (c < candidates.length && candidates[c].response.length() >= field.response.length()) {
+                added[a++] = candidates[c++];
+            }
+            added[a++] = field;
+            while (c < candidates.length) {
+                added[a++] = candidates[c++];
+            }
+
+            prefixes[first] = added;
+        }
+    }
+
+    public void remove(Field field) {
+        if (field.response == null) {
+            return;
+        }
+
+        if (field instanceof NumberField) {
+            NumberField number = (NumberField)field;
+
+            int index = index(number.size, number.address);
+            if (numbers[index] == field) {
+                numbers[index] = null;
+            }
+        } else {
+            int first = field.response.charAt(0) & 0x7F;
+
+            Field[] candidates = prefixes[first];
+            if (candidates == null) {
+                return;
+            }
+
+            Field[] removed = new Field[candidates.length - 1];
+            int r = 0;
+            for (Field candidate : candidates) {
+                if (candidate != field) {
+                    if (r == removed.length) {
+                        // not contained
+                        return;
+                    }
+                    removed[r++] = candidate;
+                }
+            }
+
+            prefixes[first] = removed.length == 0 ? null : removed;
+        }
+    }
+
+    /**
+     * Look up the field for the given message.
+     *
+     * @return field or {@code null}
+     */
+    public Field lookup(byte[] buffer, int start, int end) {
+        if (end - start >= NUMBER_HEADER && buffer[start] == 'I' && buffer[start + 1] == 'D') {
+            int size = size(buffer[start + NUMBER_PREFIX]);
+            int address = address(buffer, start + NUMBER_PREFIX + 1);
+
+            if (size > 0 && address >= 0) {
+                Field field = numbers[index(size, address)];
+                if (field != null) {
+                    return field;
+                }
+            }
+        }
+
+        int first = buffer[start];
+        if (first >= 0) {
+            Field[] candidates = prefixes[first];
+            if (candidates != null) {
+                for (Field candidate : candidates) {
+                    if (Field.startsWith(buffer, start, end, candidate.response)) {
+                        return candidate;
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private int index(int size, int address) {
+        return (size - 1) * ADDRESSES + address;
+    }
+
+    private int size(byte character) {
+        switch (character) {
+            case 'S':
+                return NumberField.SINGLE_BYTE;
+            case 'D':
+                return NumberField.DOUBLE_BYTE;
+            case 'T':
+                return NumberField.TRIPLE_BYTE;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Decode three uppercase hex digits.
+     *
+     * @return address or -1 if not valid
+     */
+    private int address(byte[] buffer, int start) {
+        int address = 0;
+
+        for (int c = start; c < start + 3; c++) {
+            int character = buffer[c];
+
+            int digit;
+            if (character >= '0' && character <= '9') {
+                digit = character - '0';
+            } else if (character >= 'A' && character <= 'F') {
+                digit = 10 + (character - 'A');
+            } else {
+                return -1;
+            }
+
+            address = address * 16 + digit;
+        }
+
+        return address;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.rower.water;
+
+import svenmeier.coxswain.gym.Measurement;
+
+/**
+ * Calculates the duration in milliseconds from the seconds and hundredths registers,
+ * interpolated with a monotonic clock between updates of the registers.
+ */
+public class DurationCalculator {
+
+    /**
+     * Resolution of calculated milliseconds.
+     */
+    public static final int RESOLUTION = 100;
+
+    private int seconds;
+
+    /**
+     * Milliseconds of last hundredths.
+     */
+    private long millis;
+
+    /**
+     * Time of last hundredths, negative if unknown.
+     */
+    private long time = -1;
+
+    /**
+     * Is the duration advancing.
+     */
+    private boolean running;
+
+    public void clear() {
+        seconds = 0;
+
+        millis = 0;
+        time = -1;
+        running = false;
+    }
+
+    /**
+     * The seconds register was received.
+     */
+    public void seconds(Measurement measurement, int seconds, long now) {
+        this.seconds = seconds;
+
+        measurement.duration = seconds;
+
+        update(measurement, now);
+    }
+
+    /**
+     * The hundredths register was received.
+     */
+    public void hundredths(Measurement measurement, int hundredths, long now) {
+        long millis = seconds * 1000L + hundredths * 10;
+
+        if (time >= 0 && millis + 500 < estimate(now)) {
+            // hundredths wrapped before seconds register was received
+            millis += 1000;
+        }
+
+        // unchanged if monitor is paused
+        running = time >= 0 && millis != this.millis;
+
+        this.millis = millis;
+        this.time = now;
+
+        update(measurement, now);
+    }
+
+    /**
+     * Update the measurement's milliseconds.
+     *
+     * @param now monotonic time in milliseconds
+     */
+    public void update(Measurement measurement, long now) {
+        long min = seconds * 1000L;
+        long max = min + 999;
+
+        // stay within the current second
+        long millis = Math.max(min, Math.min(max, estimate(now)));
+
+        measurement.durationMillis = (int)(millis - (millis % RESOLUTION));
+    }
+
+    private long estimate(long now) {
+        if (time < 0) {
+            return seconds * 1000L;
+        }
+
+        if (running == false) {
+            return millis;
+        }
+
+        return millis + (now - time);
+    }
+}
@@ -25,6 +25,21 @@ public class Field {
 
     public String response;
 
+    /**
+     * Milliseconds between requests, 0 for as often as possible.
+     */
+    public long interval;
+
+    /**
+     * Time when the next request is due.
+     */
+    long due;
+
+    /**
+     * Time of the last request still waiting for its response, 0 if none.
+     */
+    long requested;
+
     protected Field() {
     }
 
@@ -43,10 +58,49 @@ public class Field {
         return false;
     }
 
+    /**
+     * Input a message from the given bytes, without creating a {@link String}.
+     *
+     * @param buffer buffer containing the message
+     * @param start start of message
+     * @param end end of message (exclusive)
+     */
+    protected boolean input(byte[] buffer, int start, int end, Measurement measurement) {
+        if (this.response != null && startsWith(buffer, start, end, response)) {
+            onInput(buffer, start, end, measurement);
+
+            return true;
+        }
+
+        return false;
+    }
+
     protected void onInput(String message, Measurement measurement) {
 
     }
 
+    /**
+     * Falls back to {@link #onInput(String, Measurement)} - subclasses may override to avoid
+     * creation of a {@link String}.
+     */
+    protected void onInput(byte[] buffer, int start, int end, Measurement measurement) {
+        onInput(AsciiSequence.toString(buffer, start, end), measurement);
+    }
+
     protected void onAfterOutput() {
     }
+
+    static boolean startsWith(byte[] buffer, int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+
+        for (int c = 0; c < prefix.length(); c++) {
+            if (buffer[start + c] != (byte)prefix.charAt(c)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
 }
@@ -19,6 +19,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Environment;
+import android.util.Log;
 
 import java.io.BufferedWriter;
 import java.io.File;
@@ -27,56 +28,108 @@ import java.io.IOException;
 
 import svenmeier.coxswain.Coxswain;
 
+/**
+ * Trace to external storage.
+ * <p>
+ * Records are written in binary with timestamps, and converted to text on a separate thread after
+ * {@link #close()}.
+ *
+ * @see BinaryTrace
+ */
 public class FileTrace implements ITrace {
 
     public static final String TRACE_FILE = "waterrower.trace";
 
-    private final BufferedWriter writer;
+    public static final String BINARY_FILE = "waterrower.trace.bin";
+
+    private static final long MAX_LENGTH = 4 * 1024 * 1024;
+
+    private static final int ROTATIONS = 2;
+
+    /**
+     * Conversion of the last closed trace.
+     */
+    private static Thread conversion;
+
+    private final Context context;
+
+    private final File dir;
+
+    private final BinaryTrace binary;
 
     public FileTrace(Context context) throws IOException {
-        File dir = Environment.getExternalStoragePublicDirectory(Coxswain.TAG);
+        this.context = context;
+
+        dir = Environment.getExternalStoragePublicDirectory(Coxswain.TAG);
         dir.mkdirs();
         dir.setReadable(true, false);
 
-        File file = new File(dir, TRACE_FILE);
-
-        writer = new BufferedWriter(new FileWriter(file));
-
-        // input media so file can be found via MTB
-        context.sendBroadcast(new Intent(Intent.ACTION_MEDIA_SCANNER_SCAN_FILE, Uri.fromFile(file)));
+        // do not rotate files while they are converted
+        awaitConversion();
 
+        binary = new BinaryTrace(new File(dir, BINARY_FILE), MAX_LENGTH, ROTATIONS, true);
     }
 
     @Override
     public void comment(CharSequence string) {
-        trace('#', string);
+        binary.comment(string);
     }
 
     @Override
     public void onOutput(CharSequence string) {
-        trace('>', string);
+        binary.onOutput(string);
     }
 
     @Override
     public void onInput(CharSequence string) {
-        trace('<', string);
+        binary.onInput(string);
     }
 
-    private void trace(char prefix, CharSequence message) {
-        try {
-            writer.append(prefix);
-            writer.append(message);
-            writer.append('\n');
-            writer.flush();
-        } catch (IOException ignore) {
+    @Override
+    public void close() {
+        binary.close();
+
+        synchronized (FileTrace.class) {
+            conversion = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    convert();
+                }
+            }, "trace-conversion");
+            conversion.start();
         }
     }
 
-    @Override
-    public void close() {
+    private void convert() {
+        File file = new File(dir, TRACE_FILE);
         try {
-            writer.close();
-        } catch (IOException ignore) {
+            BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+            try {
+                binary.convert(writer);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException ex) {
+            Log.e(Coxswain.TAG, "cannot convert trace", ex);
+        }
+
+        // input media so files can be found via MTB
+        context.sendBroadcast(new Intent(Intent.ACTION_MEDIA_SCANNER_SCAN_FILE, Uri.fromFile(file)));
+        context.sendBroadcast(new Intent(Intent.ACTION_MEDIA_SCANNER_SCAN_FILE, Uri.fromFile(new File(dir, BINARY_FILE))));
+    }
+
+    private static void awaitConversion() {
+        Thread conversion;
+        synchronized (FileTrace.class) {
+            conversion = FileTrace.conversion;
+        }
+
+        if (conversion != null) {
+            try {
+                conversion.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.rower.water;
+
+/**
+ * Framing of lines terminated by carriage return and/or line feed, keeping partial lines
+ * between consecutive inputs.
+ * <p>
+ * Lines exceeding the maximum length or containing non-printable characters are dropped and
+ * counted as broken.
+ */
+public class Framing {
+
+    private final int maxLength;
+
+    private final byte[] buffer;
+
+    /**
+     * Start of pending bytes.
+     */
+    private int start;
+
+    /**
+     * End of pending bytes.
+     */
+    private int end;
+
+    private int frameStart;
+
+    private int frameEnd;
+
+    private int broken;
+
+    /**
+     * Discarding up to the next terminator.
+     */
+    private boolean discarding;
+
+    /**
+     * @param maxLength maximum length of a line
+     * @param inputLength maximum length of a single input
+     */
+    public Framing(int maxLength, int inputLength) {
+        this.maxLength = maxLength;
+
+        this.buffer = new byte[maxLength + inputLength];
+    }
+
+    /**
+     * Append input, completing a partial line from previous input.
+     */
+    public void append(byte[] input, int length) {
+        if (end - start > maxLength) {
+            // no terminator in sight
+            broken++;
+
+            discarding = true;
+            start = end;
+        }
+
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            start = 0;
+        }
+
+        length = Math.min(length, buffer.length - end);
+        System.arraycopy(input, 0, buffer, end, length);
+        end += length;
+    }
+
+    /**
+     * Advance to the next complete line.
+     *
+     * @return {@code false} if no complete line is available
+     */
+    public boolean next() {
+        boolean valid = true;
+
+        for (int c = start; c < end; c++) {
+            byte character = buffer[c];
+            if (character == '\n' || character == '\r') {
+                if (discarding) {
+                    discarding = false;
+                } else if (c > start) {
+                    if (valid && c - start <= maxLength) {
+                        frameStart = start;
+                        frameEnd = c;
+
+                        start = c + 1;
+                        return true;
+                    }
+
+                    broken++;
+                }
+                valid = true;
+                start = c + 1;
+            } else if (character < 0x20 || character > 0x7E) {
+                valid = false;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Buffer containing the current line.
+     */
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    /**
+     * Start of the current line.
+     */
+    public int start() {
+        return frameStart;
+    }
+
+    /**
+     * End of the current line (exclusive).
+     */
+    public int end() {
+        return frameEnd;
+    }
+
+    /**
+     * Count of broken lines.
+     */
+    public int getBroken() {
+        return broken;
+    }
+
+    public void clear() {
+        start = end = 0;
+
+        discarding = false;
+    }
+}
@@ -28,11 +28,34 @@ public abstract class NumberField extends Field {
     protected static final int CODEPOINT_0 = 48;
     protected static final int CODEPOINT_A = 65;
 
+    /**
+     * Memory address.
+     */
+    final int address;
+
+    /**
+     * Data size.
+     */
+    final int size;
+
     /**
      * @param address memory address
      * @param size data size SINGLE_BYTE, DOUBLE_BYTE or TRIPLE_BYTE
      */
     NumberField(int address, int size) {
+        this(address, size, 0);
+    }
+
+    /**
+     * @param address memory address
+     * @param size data size SINGLE_BYTE, DOUBLE_BYTE or TRIPLE_BYTE
+     * @param interval milliseconds between requests
+     */
+    NumberField(int address, int size, long interval) {
+        this.address = address;
+        this.size = size;
+        this.interval = interval;
+
         String ach = toAscii(address, 3, 16);
 
         switch (size) {
@@ -53,11 +76,35 @@ public abstract class NumberField extends Field {
         }
     }
 
+    /**
+     * Accepts messages with the expected count of digits only.
+     */
+    @Override
+    protected boolean input(String message, Measurement measurement) {
+        if (message.length() != response.length() + size * 2) {
+            return false;
+        }
+        return super.input(message, measurement);
+    }
+
+    @Override
+    protected boolean input(byte[] buffer, int start, int end, Measurement measurement) {
+        if (end - start != response.length() + size * 2) {
+            return false;
+        }
+        return super.input(buffer, start, end, measurement);
+    }
+
     @Override
     protected void onInput(String message, Measurement measurement) {
         onUpdate(fromAscii(message, response.length()), measurement);
     }
 
+    @Override
+    protected void onInput(byte[] buffer, int start, int end, Measurement measurement) {
+        onUpdate(fromAscii(buffer, start + response.length(), end), measurement);
+    }
+
     protected abstract void onUpdate(int value, Measurement measurement);
 
     protected int fromAscii(String data, int start) {
@@ -78,6 +125,24 @@ public abstract class NumberField extends Field {
         return total;
     }
 
+    protected int fromAscii(byte[] data, int start, int end) {
+        int total = 0;
+
+        for (int c = start; c < end; c++) {
+            total *= 16;
+
+            int codepoint = data[c];
+            int digit = codepoint - CODEPOINT_0;
+            if (digit > 9) {
+                digit = 10 + (codepoint - CODEPOINT_A);
+            }
+
+            total += digit;
+        }
+
+        return total;
+    }
+
     protected String toAscii(int value, int length, int base) {
         String s = Integer.toString(value, base).toUpperCase();
 
@@ -34,6 +34,8 @@ public class Protocol3 implements IProtocol {
 
     public final RatioCalculator ratioCalculator = new RatioCalculator();
 
+    public final StrokeCalculator strokeCalculator = new StrokeCalculator();
+
     public Protocol3(ITransfer transfer, ITrace trace) {
         this.transfer = transfer;
 
@@ -49,15 +51,21 @@ public class Protocol3 implements IProtocol {
     public void reset() {
         distanceInDecimeters = 0;
 
-        this.start = System.currentTimeMillis();
+        this.start = now();
 
         ratioCalculator.clear(start);
+        strokeCalculator.clear();
     }
 
     @Override
     public void transfer(Measurement measurement) {
         int length = transfer.bulkInput();
 
+        // before any strokes
+        long millis = now() - start;
+        measurement.duration = (int)(millis / 1000);
+        measurement.durationMillis = (int)(millis - (millis % DurationCalculator.RESOLUTION));
+
         byte[] buffer = transfer.buffer();
         for (int c = 0; c < length; c++) {
 
@@ -76,14 +84,16 @@ public class Protocol3 implements IProtocol {
 
                     measurement.strokes = measurement.strokes + 1;
 
-                    ratioCalculator.recovering(measurement, System.currentTimeMillis());
+                    ratioCalculator.recovering(measurement, now());
+                    strokeCalculator.recovering(measurement, now());
 
                     continue;
                 case (byte)0xFD:
                     if (c + 2 < length) {
                         trace(buffer, c, 3);
 
-                        ratioCalculator.pulling(measurement, System.currentTimeMillis());
+                        ratioCalculator.pulling(measurement, now());
+                        strokeCalculator.pulling(measurement, now());
 
                         // voltage not used
                         c += 2;
@@ -111,7 +121,14 @@ public class Protocol3 implements IProtocol {
             trace(buffer, c, 1);
         }
 
-        measurement.duration = (int)(System.currentTimeMillis() - start) / 1000;
+        strokeCalculator.update(measurement);
+    }
+
+    /**
+     * Monotonic time in milliseconds.
+     */
+    private long now() {
+        return System.nanoTime() / 1000000;
     }
 
     private void trace(byte[] buffer, int start, int length) {
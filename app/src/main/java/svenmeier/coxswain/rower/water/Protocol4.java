@@ -29,142 +29,208 @@ public class Protocol4 implements IProtocol {
 
     private static final long DEFAULT_OUTPUT_THROTTLE = 25;
 
+    /**
+     * Requests waiting for their response before output is suspended.
+     */
+    private static final int MAX_OUTSTANDING = 2;
+
+    /**
+     * Length of request terminator.
+     */
+    private static final int CRLF = 2;
+
+    /**
+     * Milliseconds after which a request is considered unanswered.
+     */
+    private static final long RESPONSE_TIMEOUT = 500;
+
+    /**
+     * Maximum doubling of the output throttle on unanswered requests.
+     */
+    private static final int MAX_BACKOFF = 4;
+
+    private static final long INTERVAL_FAST = 100;
+
+    private static final long INTERVAL_MEDIUM = 250;
+
+    private static final long INTERVAL_SLOW = 1000;
+
+    /**
+     * Longest message to expect, e.g. "IDT1E1151515".
+     */
+    private static final int MAX_MESSAGE_LENGTH = 32;
+
     private final ITransfer transfer;
 
     private final ITrace trace;
 
+    private final Framing framing;
+
     private List<Field> fields = new ArrayList<>();
 
+    private final Dispatch dispatch = new Dispatch();
+
     public final RatioCalculator ratioCalculator = new RatioCalculator();
 
     public final EnergyCalculator energyCalculator = new EnergyCalculator();
 
-    private int cycle = 0;
+    public final DurationCalculator durationCalculator = new DurationCalculator();
+
+    public final StrokeCalculator strokeCalculator = new StrokeCalculator();
 
     private long outputThrottle = DEFAULT_OUTPUT_THROTTLE;
 
+    /**
+     * Maximum count of requests in a single output.
+     */
+    private int pipeline = 1;
+
     private long lastOutput = 0;
 
+    /**
+     * Monotonic time of current transfer.
+     */
+    private long now;
+
+    /**
+     * Count of requests waiting for their response.
+     */
+    private int outstanding = 0;
+
+    /**
+     * Count of unrecognized messages.
+     */
+    private int unrecognized = 0;
+
+    /**
+     * Current backoff, doubling the output throttle.
+     */
+    private int backoff = 0;
+
     private long lastPulse = 0;
 
     private String version = VERSION_UNKOWN;
 
+    /**
+     * Reused for tracing of input.
+     */
+    private final AsciiSequence message = new AsciiSequence();
+
     public Protocol4(ITransfer transfer, ITrace aTrace) {
         this.transfer = transfer;
 
         transfer.setTimeout(50);
         transfer.setBaudrate(115200);
 
+        framing = new Framing(MAX_MESSAGE_LENGTH, transfer.buffer().length);
+
         this.trace = aTrace;
         aTrace.comment("protocol 4");
 
-        fields.add(new Field("USB", "_WR_") {
+        addField(new Field("USB", "_WR_") {
 
             /**
-             * Output once only.
+             * Request until answered.
              */
-            @Override
-            protected void onAfterOutput() {
-                this.request = null;
-            }
-
             @Override
             protected void onInput(String message, Measurement measurement) {
-                onHandshake();
+                if (this.request != null) {
+                    this.request = null;
 
-                trace.comment("handshake complete");
+                    onHandshake();
+
+                    trace.comment("handshake complete");
+                }
             }
         });
     }
 
     private void onHandshake() {
-        cycle = 0;
-
-        fields.add(new Field("IV?", "IV") {
+        addField(new Field("IV?", "IV") {
 
             /**
-             * Output once only.
+             * Request until answered.
              */
             @Override
-            protected void onAfterOutput() {
+            protected void onInput(String message, Measurement measurement) {
                 this.request = null;
-            }
 
-            @Override
-            protected void onInput(String message, Measurement measurement) {
                 version = message.substring(response.length());
 
                 trace.comment("version " + version);
             }
         });
 
-        fields.add(new Field(null, "PING") {
+        addField(new Field(null, "PING") {
             @Override
-            protected void onInput(String message, Measurement measurement) {
+            protected void onInput(byte[] buffer, int start, int end, Measurement measurement) {
             }
         });
 
-        fields.add(new Field(null, "ERROR") {
+        addField(new Field(null, "ERROR") {
             @Override
-            protected void onInput(String message, Measurement measurement) {
+            protected void onInput(byte[] buffer, int start, int end, Measurement measurement) {
             }
         });
 
-        fields.add(new Field(null, "SS") {
+        addField(new Field(null, "SS") {
             @Override
-            protected void onInput(String message, Measurement measurement) {
-                ratioCalculator.pulling(measurement, System.currentTimeMillis());
+            protected void onInput(byte[] buffer, int start, int end, Measurement measurement) {
+                durationCalculator.update(measurement, now);
+
+                ratioCalculator.pulling(measurement, now);
+                strokeCalculator.pulling(measurement, now);
             }
         });
 
-        fields.add(new Field(null, "SE") {
+        addField(new Field(null, "SE") {
             @Override
-            protected void onInput(String message, Measurement measurement) {
-                ratioCalculator.recovering(measurement, System.currentTimeMillis());
+            protected void onInput(byte[] buffer, int start, int end, Measurement measurement) {
+                ratioCalculator.recovering(measurement, now);
+                strokeCalculator.recovering(measurement, now);
             }
         });
 
-        fields.add(new Field(null, "P") {
+        addField(new Field(null, "P") {
             @Override
-            protected void onInput(String message, Measurement measurement) {
-                lastPulse = System.currentTimeMillis();
+            protected void onInput(byte[] buffer, int start, int end, Measurement measurement) {
+                lastPulse = now;
             }
         });
 
-        fields.add(new NumberField(0x140, NumberField.DOUBLE_BYTE) {
+        addField(new NumberField(0x140, NumberField.DOUBLE_BYTE, INTERVAL_MEDIUM) {
             @Override
             protected void onUpdate(int value, Measurement measurement) {
                 measurement.strokes = value;
             }
         });
 
-        fields.add(new NumberField(0x057, NumberField.DOUBLE_BYTE) {
+        addField(new NumberField(0x057, NumberField.DOUBLE_BYTE, INTERVAL_FAST) {
             @Override
             protected void onUpdate(int value, Measurement measurement) {
                 measurement.distance = value;
             }
         });
 
-        fields.add(new NumberField(0x14A, NumberField.DOUBLE_BYTE) {
+        addField(new NumberField(0x14A, NumberField.DOUBLE_BYTE, INTERVAL_FAST) {
             @Override
             protected void onUpdate(int value, Measurement measurement) {
                 measurement.speed = value;
             }
         });
 
-        fields.add(new NumberField(0x1A9, NumberField.SINGLE_BYTE) {
+        addField(new NumberField(0x1A9, NumberField.SINGLE_BYTE, INTERVAL_MEDIUM) {
             @Override
             protected void onUpdate(int value, Measurement measurement) {
                 measurement.strokeRate = value;
             }
         });
 
-        fields.add(new NumberField(0x1A0, NumberField.SINGLE_BYTE) {
+        addField(new NumberField(0x1A0, NumberField.SINGLE_BYTE, INTERVAL_MEDIUM) {
             @Override
             protected void onUpdate(int value, Measurement measurement) {
                 if (lastPulse > 0) {
                     // Waterrower is sending pulse
-                    long now = System.currentTimeMillis();
                     if (now - lastPulse > PULSE_TIMEOUT_MILLIS) {
                         // pulse has timed out, discard value
                         lastPulse = 0;
@@ -176,21 +242,21 @@ public class Protocol4 implements IProtocol {
             }
         });
 
-        fields.add(new NumberField(0x08A, NumberField.TRIPLE_BYTE) {
+        addField(new NumberField(0x08A, NumberField.TRIPLE_BYTE, INTERVAL_SLOW) {
             @Override
             protected void onUpdate(int value, Measurement measurement) {
                 measurement.energy = energyCalculator.energy(value);
             }
         });
 
-        fields.add(new NumberField(0x1E0, NumberField.SINGLE_BYTE) {
+        addField(new NumberField(0x1E0, NumberField.SINGLE_BYTE, INTERVAL_MEDIUM) {
             @Override
             protected void onUpdate(int value, Measurement measurement) {
-                // duration hundredth
+                durationCalculator.hundredths(measurement, value, now);
             }
         });
 
-        fields.add(new NumberField(0x1E1, NumberField.TRIPLE_BYTE) {
+        addField(new NumberField(0x1E1, NumberField.TRIPLE_BYTE, INTERVAL_MEDIUM) {
 			/**
 			 * Duration is sent in decimal representation.
              */
@@ -210,9 +276,24 @@ public class Protocol4 implements IProtocol {
                 return total;
             }
 
+            @Override
+            protected int fromAscii(byte[] data, int start, int end) {
+                int total = 0;
+
+                for (int c = start; c < end; c++) {
+                    total *= (c - start) % 2 == 0 ? 6 : 10;
+
+                    int digit = data[c] - CODEPOINT_0;
+
+                    total += digit;
+                }
+
+                return total;
+            }
+
             @Override
             protected void onUpdate(int value, Measurement measurement) {
-                measurement.duration = value;
+                durationCalculator.seconds(measurement, value, now);
             }
         });
     }
@@ -221,92 +302,200 @@ public class Protocol4 implements IProtocol {
         this.outputThrottle = outputThrottle;
     }
 
+    /**
+     * Pipeline several requests into a single output.
+     *
+     * @param pipeline maximum count of requests in a single output
+     */
+    public void setPipeline(int pipeline) {
+        if (pipeline < 1) {
+            throw new IllegalArgumentException("pipeline must be positive " + pipeline);
+        }
+        this.pipeline = pipeline;
+    }
+
     public String getVersion() {
         return version;
     }
 
-    private Field nextField() {
-        for (int f = 0; f < fields.size(); f++) {
-            cycle = cycle % fields.size();
+    /**
+     * Count of lost or broken messages.
+     */
+    public int getBrokenMessages() {
+        return framing.getBroken() + unrecognized;
+    }
+
+    /**
+     * Count of requests waiting for their response.
+     */
+    public int getOutstanding() {
+        return outstanding;
+    }
 
-            Field field = fields.get(cycle);
+    /**
+     * The field with the most overdue request.
+     */
+    private Field nextField(long now) {
+        Field next = null;
 
-            cycle++;
+        for (int f = 0; f < fields.size(); f++) {
+            Field field = fields.get(f);
+
+            if (field.request == null || field.requested > 0 || field.due > now) {
+                continue;
+            }
 
-            if (field.request != null) {
-                return field;
+            if (next == null || field.due < next.due) {
+                next = field;
             }
         }
 
-        return null;
+        return next;
     }
 
-    private boolean inputField(Measurement measurement, String message) {
+    private void addField(Field field) {
+        fields.add(field);
 
-        for (int f = 0; f < fields.size(); f++) {
-            if (fields.get(f).input(message, measurement)) {
-                return true;
+        dispatch.add(field);
+    }
+
+    private void removeField(Field field) {
+        fields.remove(field);
+
+        dispatch.remove(field);
+    }
+
+    private boolean inputField(Measurement measurement, byte[] buffer, int start, int end) {
+
+        Field field = dispatch.lookup(buffer, start, end);
+
+        if (field != null && field.input(buffer, start, end, measurement)) {
+            if (field.requested > 0) {
+                field.requested = 0;
+
+                outstanding--;
+                if (backoff > 0) {
+                    backoff--;
+                }
             }
+            return true;
         }
 
         return false;
     }
 
+    /**
+     * Give up on requests without response.
+     */
+    private void timeout(long now) {
+        for (int f = 0; f < fields.size(); f++) {
+            Field field = fields.get(f);
+
+            if (field.requested > 0 && now - field.requested > RESPONSE_TIMEOUT) {
+                field.requested = 0;
+
+                outstanding--;
+                if (backoff < MAX_BACKOFF) {
+                    backoff++;
+                }
+
+                trace.comment("timeout");
+            }
+        }
+    }
+
     public void transfer(Measurement measurement) {
+        transfer(measurement, System.nanoTime() / 1000000);
+    }
+
+    /**
+     * @param now monotonic time in milliseconds
+     */
+    void transfer(Measurement measurement, long now) {
+        this.now = now;
 
         input(measurement);
 
-        output();
+        durationCalculator.update(measurement, now);
+        strokeCalculator.update(measurement);
+
+        timeout(now);
+
+        output(now);
     }
 
-    private void output() {
-        if (System.currentTimeMillis() - lastOutput < outputThrottle) {
+    private void output(long now) {
+        if (now - lastOutput < (outputThrottle << backoff)) {
             return;
         }
-        lastOutput = System.currentTimeMillis();
 
-        Field field = nextField();
-        if (field != null) {
+        byte[] buffer = transfer.buffer();
+        int c = 0;
+
+        for (int r = 0; r < pipeline; r++) {
+            if (outstanding >= MAX_OUTSTANDING * pipeline) {
+                // S4 is falling behind
+                break;
+            }
+
+            Field field = nextField(now);
+            if (field == null) {
+                break;
+            }
+
             String request = field.request;
+            if (c + request.length() + CRLF > buffer.length) {
+                break;
+            }
 
             trace.onOutput(request);
 
-            byte[] buffer = transfer.buffer();
-            int c = 0;
-            for (; c < request.length(); c++) {
-                buffer[c] = (byte)request.charAt(c);
+            for (int i = 0; i < request.length(); i++) {
+                buffer[c++] = (byte)request.charAt(i);
             }
             buffer[c++] = '\r';
             buffer[c++] = '\n';
 
-            transfer.bulkOutput(c);
+            field.due = now + field.interval;
+            if (field.response != null) {
+                field.requested = now;
+                outstanding++;
+            }
 
             field.onAfterOutput();
         }
+
+        if (c > 0) {
+            lastOutput = now;
+
+            transfer.bulkOutput(c);
+        }
     }
 
     private void input(Measurement measurement) {
         int length = transfer.bulkInput();
         if (length > 0) {
-            byte[] buffer = transfer.buffer();
-            StringBuilder response = new StringBuilder();
-            for (int c = 0; c < length; c++) {
-                char character = (char)buffer[c];
-                if (character == '\n' || character == '\r') {
-                    if (response.length() > 0) {
-                        String message = response.toString();
-                        trace.onInput(message);
-
-                        if (inputField(measurement, message) == false) {
-                            trace.comment("unrecognized");
-                        }
-
-                        response.setLength(0);
-                    }
-                } else {
-                    response.append(character);
+            int broken = framing.getBroken();
+
+            framing.append(transfer.buffer(), length);
+
+            while (framing.next()) {
+                byte[] buffer = framing.buffer();
+                int start = framing.start();
+                int end = framing.end();
+
+                trace.onInput(message.set(buffer, start, end));
+
+                if (inputField(measurement, buffer, start, end) == false) {
+                    unrecognized++;
+
+                    trace.comment("unrecognized");
                 }
             }
+
+            if (framing.getBroken() > broken) {
+                trace.comment("broken");
+            }
         }
     }
 
@@ -318,13 +507,18 @@ public class Protocol4 implements IProtocol {
              */
             @Override
             protected void onAfterOutput() {
-                fields.remove(this);
+                removeField(this);
             }
         };
-        fields.add(reset);
+        // before all other fields
+        reset.due = Long.MIN_VALUE;
+        addField(reset);
 
-        cycle = fields.indexOf(reset);
+        // drop partial input from before the reset
+        framing.clear();
 
-        ratioCalculator.clear(System.currentTimeMillis());
+        ratioCalculator.clear(System.nanoTime() / 1000000);
+        durationCalculator.clear();
+        strokeCalculator.clear();
     }
 }
@@ -58,8 +58,11 @@ public class RatioCalculator {
             pullDuration = (now - start);
             start = now;
 
-            int ratio = Math.min((int) (MULTIPLIER * recoverDuration / pullDuration), MAX);
-            measurement.strokeRatio = ratio;
+            if (pullDuration > 0) {
+                // events might be received at once
+                int ratio = Math.min((int) (MULTIPLIER * recoverDuration / pullDuration), MAX);
+                measurement.strokeRatio = ratio;
+            }
         }
     }
 }
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.rower.water;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import svenmeier.coxswain.rower.water.usb.ITransfer;
+
+/**
+ * Emulation of a Waterrower S4 monitor, answering requests of the S4 USB protocol.
+ * <p>
+ * Register values follow a {@link Model} of steady rowing, stroke events "SS" and "SE" as well
+ * as pulse events "P" are sent unrequested. Latency, dropped bytes and split packets can be
+ * injected.
+ */
+public class S4Emulator implements ITransfer {
+
+    public static final String VERSION = "40210";
+
+    public static final int ADDRESS_DISTANCE = 0x057;
+    public static final int ADDRESS_ENERGY = 0x08A;
+    public static final int ADDRESS_STROKES = 0x140;
+    public static final int ADDRESS_SPEED = 0x14A;
+    public static final int ADDRESS_PULSE = 0x1A0;
+    public static final int ADDRESS_STROKE_RATE = 0x1A9;
+    public static final int ADDRESS_HUNDREDTHS = 0x1E0;
+    public static final int ADDRESS_DURATION = 0x1E1;
+
+    private final Model model;
+
+    private final Random random;
+
+    private final byte[] buffer = new byte[64];
+
+    private final ArrayDeque<Response> responses = new ArrayDeque<>();
+
+    private final Map<String, Integer> requests = new HashMap<>();
+
+    private boolean connected;
+
+    private long start;
+
+    private boolean driving;
+
+    private long lastPulse;
+
+    private long latency;
+
+    private double dropRate;
+
+    private int packetSize = buffer.length;
+
+    /**
+     * Partial response still to be sent.
+     */
+    private Response partial;
+
+    private int partialOffset;
+
+    public S4Emulator(Model model) {
+        this(model, new Random(0));
+    }
+
+    public S4Emulator(Model model, Random random) {
+        this.model = model;
+        this.random = random;
+    }
+
+    /**
+     * Delay responses.
+     */
+    public S4Emulator setLatency(long latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * Drop bytes with the given probability.
+     */
+    public S4Emulator setDropRate(double dropRate) {
+        this.dropRate = dropRate;
+        return this;
+    }
+
+    /**
+     * Split input into packets of the given size.
+     */
+    public S4Emulator setPacketSize(int packetSize) {
+        this.packetSize = Math.min(packetSize, buffer.length);
+        return this;
+    }
+
+    /**
+     * Count of requests received for the given request.
+     */
+    public int getRequests(String request) {
+        Integer count = requests.get(request);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public void setBaudrate(int baudRate) {
+    }
+
+    @Override
+    public void setData(int dataBits, int parity, int stopBits, boolean tx) {
+    }
+
+    @Override
+    public void setTimeout(int timeout) {
+    }
+
+    @Override
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    @Override
+    public void bulkOutput(int length) {
+        long now = now();
+
+        int start = 0;
+        for (int c = 0; c < length; c++) {
+            if (buffer[c] == '\r' || buffer[c] == '\n') {
+                if (c > start) {
+                    request(AsciiSequence.toString(buffer, start, c), now);
+                }
+                start = c + 1;
+            }
+        }
+    }
+
+    @Override
+    public int bulkInput() {
+        long now = now();
+
+        events(now);
+
+        int length = 0;
+        while (length < packetSize) {
+            if (partial == null) {
+                Response response = responses.peek();
+                if (response == null || response.due > now) {
+                    break;
+                }
+                partial = responses.poll();
+                partialOffset = 0;
+            }
+
+            while (length < packetSize && partialOffset < partial.bytes.length) {
+                byte b = partial.bytes[partialOffset++];
+                if (dropRate > 0 && random.nextDouble() < dropRate) {
+                    continue;
+                }
+                buffer[length++] = b;
+            }
+
+            if (partialOffset == partial.bytes.length) {
+                partial = null;
+            }
+        }
+
+        return length;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Current time in milliseconds.
+     */
+    protected long now() {
+        return System.currentTimeMillis();
+    }
+
+    private void request(String request, long now) {
+        Integer count = requests.get(request);
+        requests.put(request, count == null ? 1 : count + 1);
+
+        if ("USB".equals(request)) {
+            connected = true;
+            reset(now);
+            respond("_WR_", now);
+        } else if (connected == false) {
+            // not connected yet
+        } else if ("IV?".equals(request)) {
+            respond("IV" + VERSION, now);
+        } else if ("RESET".equals(request)) {
+            reset(now);
+        } else if (request.length() == 6 && request.startsWith("IR")) {
+            int size;
+            switch (request.charAt(2)) {
+                case 'S':
+                    size = 1;
+                    break;
+                case 'D':
+                    size = 2;
+                    break;
+                case 'T':
+                    size = 3;
+                    break;
+                default:
+                    respond("ERROR", now);
+                    return;
+            }
+
+            int address;
+            try {
+                address = Integer.parseInt(request.substring(3), 16);
+            } catch (NumberFormatException ex) {
+                respond("ERROR", now);
+                return;
+            }
+
+            respond("ID" + request.substring(2) + register(address, size, now - start), now);
+        } else {
+            respond("ERROR", now);
+        }
+    }
+
+    private void reset(long now) {
+        start = now;
+        driving = false;
+        lastPulse = now;
+    }
+
+    /**
+     * Send unrequested stroke and pulse events.
+     */
+    private void events(long now) {
+        if (connected == false) {
+            return;
+        }
+
+        long elapsed = now - start;
+
+        boolean driving = model.driving(elapsed);
+        if (driving && this.driving == false) {
+            respond("SS", now);
+        } else if (driving == false && this.driving) {
+            respond("SE", now);
+        }
+        this.driving = driving;
+
+        if (model.pulse > 0 && now - lastPulse >= 60000 / model.pulse) {
+            lastPulse = now;
+            respond("P", now);
+        }
+    }
+
+    private String register(int address, int size, long elapsed) {
+        int value;
+        switch (address) {
+            case ADDRESS_DISTANCE:
+                value = model.distance(elapsed);
+                break;
+            case ADDRESS_ENERGY:
+                value = model.energy(elapsed);
+                break;
+            case ADDRESS_STROKES:
+                value = model.strokes(elapsed);
+                break;
+            case ADDRESS_SPEED:
+                value = model.speed;
+                break;
+            case ADDRESS_PULSE:
+                value = model.pulse;
+                break;
+            case ADDRESS_STROKE_RATE:
+                value = model.strokeRate;
+                break;
+            case ADDRESS_HUNDREDTHS:
+                value = (int)(elapsed % 1000 / 10);
+                break;
+            case ADDRESS_DURATION:
+                // sent in decimal representation
+                long seconds = elapsed / 1000;
+                return String.format(Locale.US, "%02d%02d%02d", seconds / 3600 % 100, seconds / 60 % 60, seconds % 60);
+            default:
+                value = 0;
+        }
+
+        String hex = Integer.toHexString(value & ((1 << (size * 8)) - 1)).toUpperCase(Locale.US);
+        while (hex.length() < size * 2) {
+            hex = "0" + hex;
+        }
+        return hex;
+    }
+
+    private void respond(String message, long now) {
+        responses.add(new Response(now + latency, message + "\r\n"));
+    }
+
+    private static class Response {
+
+        final long due;
+
+        final byte[] bytes;
+
+        Response(long due, String message) {
+            this.due = due;
+
+            this.bytes = new byte[message.length()];
+            for (int b = 0; b < bytes.length; b++) {
+                bytes[b] = (byte)message.charAt(b);
+            }
+        }
+    }
+
+    /**
+     * Model of steady rowing.
+     */
+    public static class Model {
+
+        /**
+         * strokes per minute
+         */
+        public int strokeRate = 26;
+
+        /**
+         * centimeters per second
+         */
+        public int speed = 350;
+
+        /**
+         * beats per minute, 0 for none
+         */
+        public int pulse = 0;
+
+        /**
+         * recovery duration relative to drive duration
+         */
+        public double ratio = 2.0;
+
+        /**
+         * calories per hour
+         */
+        public int caloriesPerHour = 600 * 1000;
+
+        public int strokes(long elapsed) {
+            return (int)(elapsed * strokeRate / 60000);
+        }
+
+        public boolean driving(long elapsed) {
+            long stroke = 60000 / strokeRate;
+
+            return (elapsed % stroke) < stroke / (1 + ratio);
+        }
+
+        public int distance(long elapsed) {
+            return (int)(elapsed * speed / 100000);
+        }
+
+        public int energy(long elapsed) {
+            return (int)(elapsed * caloriesPerHour / 3600000);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.rower.water;
+
+import svenmeier.coxswain.gym.Measurement;
+import svenmeier.coxswain.gym.Stroke;
+
+/**
+ * Records strokes from the start and end of drives.
+ */
+public class StrokeCalculator {
+
+    private Listener listener;
+
+    private boolean driving;
+
+    /**
+     * Workout milliseconds at start of drive, negative if unknown.
+     */
+    private int driveStart = -1;
+
+    /**
+     * Monotonic time at start of drive.
+     */
+    private long driveStartTime;
+
+    /**
+     * Duration of last drive, negative if unknown.
+     */
+    private long drive = -1;
+
+    private int startDistance;
+
+    private int peakSpeed;
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void clear() {
+        driving = false;
+        driveStart = -1;
+        drive = -1;
+    }
+
+    /**
+     * The drive starts, completing the previous stroke.
+     *
+     * @param now monotonic time in milliseconds
+     */
+    public void pulling(Measurement measurement, long now) {
+        if (driving) {
+            return;
+        }
+
+        if (driveStart >= 0 && drive >= 0) {
+            int recoveryEnd = driveStart + (int)(now - driveStartTime);
+
+            Stroke stroke = new Stroke(driveStart, driveStart + (int)drive, recoveryEnd, measurement.distance - startDistance, peakSpeed);
+            if (listener != null) {
+                listener.onStroke(stroke);
+            }
+        }
+
+        driving = true;
+        driveStart = measurement.durationMillis;
+        driveStartTime = now;
+        drive = -1;
+
+        startDistance = measurement.distance;
+        peakSpeed = measurement.speed;
+    }
+
+    /**
+     * The drive ends.
+     *
+     * @param now monotonic time in milliseconds
+     */
+    public void recovering(Measurement measurement, long now) {
+        if (driving == false) {
+            return;
+        }
+
+        update(measurement);
+
+        driving = false;
+        drive = now - driveStartTime;
+    }
+
+    /**
+     * Update with the current speed.
+     */
+    public void update(Measurement measurement) {
+        if (driving) {
+            peakSpeed = Math.max(peakSpeed, measurement.speed);
+        }
+    }
+
+    public interface Listener {
+
+        /**
+         * A stroke was completed.
+         */
+        void onStroke(Stroke stroke);
+    }
+}
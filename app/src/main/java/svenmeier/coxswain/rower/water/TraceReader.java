@@ -0,0 +1,168 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.rower.water;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reader of traces, either binary records written by {@link BinaryTrace} or lines of text as
+ * written by previous versions.
+ */
+public abstract class TraceReader {
+
+    public static final long UNKNOWN_TIME = -1;
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    protected long time = UNKNOWN_TIME;
+
+    protected char direction;
+
+    protected final StringBuilder message = new StringBuilder();
+
+    /**
+     * Advance to the next record.
+     *
+     * @return {@code false} if no more records are available
+     */
+    public abstract boolean next() throws IOException;
+
+    /**
+     * Time of the current record in nanoseconds, {@link #UNKNOWN_TIME} for text traces.
+     */
+    public long time() {
+        return time;
+    }
+
+    /**
+     * Direction of the current record, i.e. '#', '&gt;' or '&lt;'.
+     */
+    public char direction() {
+        return direction;
+    }
+
+    /**
+     * Message of the current record.
+     */
+    public CharSequence message() {
+        return message;
+    }
+
+    public abstract void close() throws IOException;
+
+    /**
+     * Open a reader for the given input, detecting compression and format.
+     */
+    public static TraceReader open(InputStream input) throws IOException {
+        input = new BufferedInputStream(input);
+
+        input.mark(2);
+        int magic = input.read() | (input.read() << 8);
+        input.reset();
+        if (magic == GZIP_MAGIC) {
+            input = new BufferedInputStream(new GZIPInputStream(input));
+        }
+
+        input.mark(BinaryTrace.MAGIC.length);
+        boolean binary = true;
+        for (byte b : BinaryTrace.MAGIC) {
+            if (input.read() != b) {
+                binary = false;
+                break;
+            }
+        }
+
+        if (binary) {
+            return new Binary(input);
+        } else {
+            input.reset();
+
+            return new Text(input);
+        }
+    }
+
+    private static class Binary extends TraceReader {
+
+        private final DataInputStream input;
+
+        Binary(InputStream input) {
+            this.input = new DataInputStream(input);
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            try {
+                time = input.readLong();
+            } catch (EOFException end) {
+                return false;
+            }
+            direction = (char)input.readByte();
+            int length = input.readUnsignedShort();
+
+            message.setLength(0);
+            for (int c = 0; c < length; c++) {
+                message.append((char)input.readUnsignedByte());
+            }
+
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+
+    private static class Text extends TraceReader {
+
+        private final BufferedReader reader;
+
+        Text(InputStream input) {
+            this.reader = new BufferedReader(new InputStreamReader(input));
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            while (true) {
+                String line = reader.readLine();
+                if (line == null) {
+                    return false;
+                }
+
+                if (line.length() > 0) {
+                    direction = line.charAt(0);
+
+                    message.setLength(0);
+                    message.append(line, 1, line.length());
+
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.rower.water;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import svenmeier.coxswain.gym.Stroke;
+import svenmeier.coxswain.rower.Rower;
+
+/**
+ * Rower replaying a recorded trace through the Waterrower protocols, without hardware.
+ *
+ * @see TraceTransfer
+ */
+public class TraceRower extends Rower {
+
+    /**
+     * Name of trace to replay instead of a mocked rower.
+     */
+    public static final String REPLAY_FILE = "waterrower.replay";
+
+    private final File file;
+
+    private final double speed;
+
+    private TraceTransfer transfer;
+
+    private IProtocol protocol;
+
+    private final StrokeCalculator.Listener strokeListener = new StrokeCalculator.Listener() {
+        @Override
+        public void onStroke(Stroke stroke) {
+            TraceRower.this.onStroke(stroke);
+        }
+    };
+
+    /**
+     * @param file trace to replay
+     * @param speed factor of replay speed
+     */
+    public TraceRower(File file, double speed) {
+        this.file = file;
+        this.speed = speed;
+    }
+
+    @Override
+    public boolean open() {
+        if (isOpen()) {
+            return true;
+        }
+
+        try {
+            open(new FileInputStream(file));
+        } catch (IOException ex) {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Open the given trace.
+     */
+    void open(InputStream input) throws IOException {
+        transfer = new TraceTransfer(TraceReader.open(input), speed);
+
+        if (TraceTransfer.PROTOCOL_3.equals(transfer.getProtocol())) {
+            Protocol3 protocol3 = new Protocol3(transfer, new NullTrace());
+            protocol3.strokeCalculator.setListener(strokeListener);
+            protocol = protocol3;
+        } else {
+            Protocol4 protocol4 = new Protocol4(transfer, new NullTrace());
+            protocol4.strokeCalculator.setListener(strokeListener);
+            protocol4.setOutputThrottle(0);
+            protocol = protocol4;
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return transfer != null;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+
+        protocol.reset();
+    }
+
+    @Override
+    public boolean row() {
+        if (isOpen() == false || transfer.isFinished()) {
+            return false;
+        }
+
+        protocol.transfer(this);
+
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (transfer != null) {
+            transfer.close();
+            transfer = null;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Trace";
+    }
+}
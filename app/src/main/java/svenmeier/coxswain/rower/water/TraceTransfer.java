@@ -0,0 +1,259 @@
+/*
+ * Copyright 2015 Sven Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package svenmeier.coxswain.rower.water;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import svenmeier.coxswain.rower.water.usb.ITransfer;
+
+/**
+ * Transfer replaying the input of a recorded trace.
+ * <p>
+ * Input is replayed in its original timing, optionally scaled by a speed factor. Records of
+ * text traces have no time, these are replayed in a fixed interval. Output is ignored.
+ */
+public class TraceTransfer implements ITransfer {
+
+    public static final String PROTOCOL_3 = "protocol 3";
+
+    public static final String PROTOCOL_4 = "protocol 4";
+
+    /**
+     * Interval between untimed records.
+     */
+    private static final long UNTIMED_INTERVAL = TimeUnit.MILLISECONDS.toNanos(25);
+
+    private final TraceReader reader;
+
+    private final double speed;
+
+    private final byte[] buffer = new byte[256];
+
+    private int timeout;
+
+    private String protocol;
+
+    /**
+     * Is the current record waiting to be replayed.
+     */
+    private boolean pending;
+
+    /**
+     * Bytes of the pending record already replayed, if it is larger than the buffer.
+     */
+    private int copied;
+
+    private boolean finished;
+
+    private long traceStart = TraceReader.UNKNOWN_TIME;
+
+    private long replayStart;
+
+    private long untimed;
+
+    /**
+     * @param reader reader of trace
+     * @param speed factor of replay speed, e.g. {@code 50} for fifty times faster
+     */
+    public TraceTransfer(TraceReader reader, double speed) {
+        this.reader = reader;
+        this.speed = speed;
+    }
+
+    /**
+     * The protocol recorded in the trace before its first input.
+     *
+     * @return {@link #PROTOCOL_3}, {@link #PROTOCOL_4} or {@code null}
+     */
+    public String getProtocol() {
+        advance();
+
+        return protocol;
+    }
+
+    /**
+     * Has all input been replayed.
+     */
+    public boolean isFinished() {
+        advance();
+
+        return finished;
+    }
+
+    @Override
+    public void setBaudrate(int baudRate) {
+    }
+
+    @Override
+    public void setData(int dataBits, int parity, int stopBits, boolean tx) {
+    }
+
+    @Override
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    /**
+     * Replay all due input, waiting at most the timeout for the next input to become due.
+     */
+    @Override
+    public int bulkInput() {
+        if (advance() == false) {
+            return 0;
+        }
+
+        long now = System.nanoTime();
+        if (replayStart == 0) {
+            replayStart = now;
+            traceStart = time();
+        }
+
+        long wait = due() - now;
+        if (wait > 0) {
+            sleep(Math.min(wait, TimeUnit.MILLISECONDS.toNanos(timeout)));
+
+            now = System.nanoTime();
+        }
+
+        int length = 0;
+        while (advance() && due() <= now) {
+            int remaining = required() - copied;
+            if (length + remaining > buffer.length) {
+                if (length == 0) {
+                    // larger than the buffer, split across calls
+                    length = copy(0, buffer.length);
+                }
+                break;
+            }
+
+            length = copy(length, remaining);
+            copied = 0;
+            pending = false;
+        }
+        return length;
+    }
+
+    @Override
+    public void bulkOutput(int length) {
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException ignore) {
+        }
+    }
+
+    /**
+     * Advance to the next pending input.
+     *
+     * @return {@code false} if finished
+     */
+    private boolean advance() {
+        try {
+            while (pending == false && finished == false) {
+                if (reader.next()) {
+                    char direction = reader.direction();
+                    if (direction == '<') {
+                        pending = true;
+                        untimed += UNTIMED_INTERVAL;
+                    } else if (direction == '#') {
+                        String comment = reader.message().toString();
+                        if (PROTOCOL_3.equals(comment) || PROTOCOL_4.equals(comment)) {
+                            protocol = comment;
+                        }
+                    }
+                } else {
+                    finished = true;
+                }
+            }
+        } catch (IOException ex) {
+            finished = true;
+        }
+
+        return finished == false;
+    }
+
+    private long time() {
+        long time = reader.time();
+        if (time == TraceReader.UNKNOWN_TIME) {
+            time = untimed;
+        }
+        return time;
+    }
+
+    /**
+     * When is the pending input due in replay.
+     */
+    private long due() {
+        return replayStart + (long)((time() - traceStart) / speed);
+    }
+
+    private boolean isHex() {
+        return PROTOCOL_3.equals(protocol);
+    }
+
+    private int required() {
+        CharSequence message = reader.message();
+
+        if (isHex()) {
+            return (message.length() + 1) / 3;
+        } else {
+            return message.length() + 2;
+        }
+    }
+
+    /**
+     * Copy the next bytes of the pending record into the buffer.
+     *
+     * @return offset after the copied bytes
+     */
+    private int copy(int offset, int count) {
+        CharSequence message = reader.message();
+
+        for (int b = copied; b < copied + count; b++) {
+            if (isHex()) {
+                // "FE 19"
+                int c = b * 3;
+                buffer[offset++] = (byte)((Character.digit(message.charAt(c), 16) << 4) | Character.digit(message.charAt(c + 1), 16));
+            } else if (b < message.length()) {
+                buffer[offset++] = (byte)message.charAt(b);
+            } else if (b == message.length()) {
+                buffer[offset++] = '\r';
+            } else {
+                buffer[offset++] = '\n';
+            }
+        }
+        copied += count;
+
+        return offset;
+    }
+
+    private void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
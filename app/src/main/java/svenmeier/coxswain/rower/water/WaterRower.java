@@ -27,12 +27,16 @@ import android.hardware.usb.UsbInterface;
 import android.hardware.usb.UsbManager;
 import android.util.Log;
 
+import java.io.IOException;
+
 import propoid.util.content.Preference;
 import svenmeier.coxswain.BuildConfig;
 import svenmeier.coxswain.Coxswain;
 import svenmeier.coxswain.R;
+import svenmeier.coxswain.gym.Stroke;
 import svenmeier.coxswain.rower.Rower;
 import svenmeier.coxswain.rower.water.usb.ITransfer;
+import svenmeier.coxswain.rower.water.usb.UsbRequestTransfer;
 import svenmeier.coxswain.rower.water.usb.UsbTransfer;
 
 /**
@@ -40,6 +44,8 @@ import svenmeier.coxswain.rower.water.usb.UsbTransfer;
  */
 public class WaterRower extends Rower {
 
+    private static final int PIPELINE = 4;
+
     private final Context context;
 
     private final UsbDevice device;
@@ -50,6 +56,13 @@ public class WaterRower extends Rower {
 
     private IProtocol protocol;
 
+    private final StrokeCalculator.Listener strokeListener = new StrokeCalculator.Listener() {
+        @Override
+        public void onStroke(Stroke stroke) {
+            WaterRower.this.onStroke(stroke);
+        }
+    };
+
     private boolean detached;
 
     private BroadcastReceiver receiver;
@@ -94,10 +107,17 @@ public class WaterRower extends Rower {
         context.registerReceiver(receiver, new IntentFilter(UsbManager.ACTION_USB_DEVICE_DETACHED));
 
         if (Preference.getBoolean(context, R.string.preference_hardware_legacy).get()) {
-            protocol = new Protocol3(transfer, trace);
+            Protocol3 protocol3 = new Protocol3(transfer, trace);
+            protocol3.strokeCalculator.setListener(strokeListener);
+            protocol = protocol3;
         } else {
             Protocol4 protocol4 = new Protocol4(transfer, trace);
+            protocol4.strokeCalculator.setListener(strokeListener);
             protocol4.energyCalculator.setWeight(Preference.getInt(context, R.string.preference_weight).fallback(90).get());
+            if (Preference.getBoolean(context, R.string.preference_hardware_asynchronous).get()) {
+                // responses are read in time
+                protocol4.setPipeline(PIPELINE);
+            }
             protocol = protocol4;
         }
 
@@ -123,14 +143,18 @@ public class WaterRower extends Rower {
         context.unregisterReceiver(receiver);
         receiver = null;
 
-        closeTrace();
-
-        this.transfer = null;
+        if (this.transfer != null) {
+            this.transfer.close();
+            this.transfer = null;
+        }
 
         if (this.connection != null) {
             this.connection.close();
             this.connection = null;
         }
+
+        // after the device is released
+        closeTrace();
     }
 
     @Override
@@ -204,7 +228,16 @@ public class WaterRower extends Rower {
             if (out != null && in != null) {
                 if (this.connection.claimInterface(anInterface, true)) {
                     trace.comment(String.format("claimed interface %s", interfaceId));
-                    transfer = new UsbTransfer(connection, in, out);
+                    if (Preference.getBoolean(context, R.string.preference_hardware_asynchronous).get()) {
+                        try {
+                            transfer = new UsbRequestTransfer(connection, in, out);
+                        } catch (IOException ex) {
+                            trace.comment(String.format("cannot queue requests %s, falling back to synchronous", ex.getMessage()));
+                        }
+                    }
+                    if (transfer == null) {
+                        transfer = new UsbTransfer(connection, in, out);
+                    }
                     return true;
                 } else {
                     trace.comment(String.format("cannot claim interface %s", interfaceId));
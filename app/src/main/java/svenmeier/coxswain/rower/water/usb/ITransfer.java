@@ -25,4 +25,6 @@ public interface ITransfer {
 	int bulkInput();
 
 	void bulkOutput(int length);
+
+	void close();
 }
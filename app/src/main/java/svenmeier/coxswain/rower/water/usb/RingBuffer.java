@@ -0,0 +1,107 @@
+package svenmeier.coxswain.rower.water.usb;
+
+/**
+ * A lock-free ring buffer of bytes for a single producer and a single consumer.
+ */
+public class RingBuffer {
+
+	private final byte[] bytes;
+
+	private final int mask;
+
+	/**
+	 * Count of bytes written, modified by producer only.
+	 */
+	private volatile long head;
+
+	/**
+	 * Count of bytes read, modified by consumer only.
+	 */
+	private volatile long tail;
+
+	/**
+	 * Count of bytes lost due to overflow, modified by producer only.
+	 */
+	private volatile long overflow;
+
+	/**
+	 * @param capacity capacity, must be a power of two
+	 */
+	public RingBuffer(int capacity) {
+		if (Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("capacity must be a power of two " + capacity);
+		}
+
+		this.bytes = new byte[capacity];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Write bytes - producer only.
+	 *
+	 * @return count of written bytes, less than length if there is not enough space
+	 */
+	public int write(byte[] source, int offset, int length) {
+		long head = this.head;
+
+		int free = bytes.length - (int)(head - this.tail);
+		int count = Math.min(length, free);
+
+		int index = (int)head & mask;
+		int first = Math.min(count, bytes.length - index);
+		System.arraycopy(source, offset, bytes, index, first);
+		System.arraycopy(source, offset + first, bytes, 0, count - first);
+
+		if (count < length) {
+			overflow += length - count;
+		}
+
+		// publish
+		this.head = head + count;
+
+		return count;
+	}
+
+	/**
+	 * Read bytes - consumer only.
+	 *
+	 * @return count of read bytes
+	 */
+	public int read(byte[] target, int offset, int length) {
+		long tail = this.tail;
+
+		int available = (int)(this.head - tail);
+		int count = Math.min(length, available);
+
+		int index = (int)tail & mask;
+		int first = Math.min(count, bytes.length - index);
+		System.arraycopy(bytes, index, target, offset, first);
+		System.arraycopy(bytes, 0, target, offset + first, count - first);
+
+		// release
+		this.tail = tail + count;
+
+		return count;
+	}
+
+	/**
+	 * Count of bytes available for reading.
+	 */
+	public int available() {
+		return (int)(head - tail);
+	}
+
+	/**
+	 * Count of bytes free for writing.
+	 */
+	public int free() {
+		return bytes.length - available();
+	}
+
+	/**
+	 * Count of bytes lost because the consumer did not keep up.
+	 */
+	public long getOverflow() {
+		return overflow;
+	}
+}
@@ -0,0 +1,178 @@
+package svenmeier.coxswain.rower.water.usb;
+
+import android.hardware.usb.UsbDeviceConnection;
+import android.hardware.usb.UsbEndpoint;
+import android.hardware.usb.UsbRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Transfer reading on a separate thread, keeping {@link UsbRequest}s queued all the time.
+ * <p>
+ * Incoming bytes are handed over via a {@link RingBuffer}, output is written immediately
+ * without waiting for input.
+ */
+public class UsbRequestTransfer extends UsbTransfer {
+
+	private static final int REQUESTS = 4;
+
+	private static final int CAPACITY = 4096;
+
+	/**
+	 * Milliseconds to wait for the reader on close.
+	 */
+	private static final int JOIN_TIMEOUT = 1000;
+
+	private final UsbDeviceConnection connection;
+
+	private final UsbEndpoint input;
+
+	private final RingBuffer ring = new RingBuffer(CAPACITY);
+
+	private final UsbRequest[] requests = new UsbRequest[REQUESTS];
+
+	private final Thread reader;
+
+	private volatile Thread consumer;
+
+	private volatile boolean closed;
+
+	private int timeout;
+
+	/**
+	 * @throws IOException if the requests cannot be initialized
+	 */
+	public UsbRequestTransfer(UsbDeviceConnection connection, UsbEndpoint input, UsbEndpoint output) throws IOException {
+		super(connection, input, output);
+
+		this.connection = connection;
+		this.input = input;
+
+		for (int r = 0; r < requests.length; r++) {
+			UsbRequest request = new UsbRequest();
+			if (request.initialize(connection, input) == false) {
+				closeRequests();
+				throw new IOException("cannot initialize request");
+			}
+			requests[r] = request;
+		}
+
+		reader = new Thread(new Reader(), "usb-reader");
+		reader.start();
+	}
+
+	@Override
+	public void setTimeout(int timeout) {
+		super.setTimeout(timeout);
+
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Read available bytes, waiting at most the timeout if none are available yet.
+	 */
+	@Override
+	public int bulkInput() {
+		consumer = Thread.currentThread();
+
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		while (ring.available() == 0 && closed == false) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				break;
+			}
+			LockSupport.parkNanos(this, remaining);
+		}
+
+		byte[] buffer = buffer();
+		return ring.read(buffer, 0, buffer.length);
+	}
+
+	/**
+	 * Count of bytes lost because input was not consumed fast enough.
+	 */
+	public long getOverflow() {
+		return ring.getOverflow();
+	}
+
+	/**
+	 * Cancel all queued requests and wait for the reader to finish, before the connection is closed.
+	 */
+	@Override
+	public void close() {
+		synchronized (requests) {
+			closed = true;
+
+			for (UsbRequest request : requests) {
+				// wakes up requestWait()
+				request.cancel();
+			}
+		}
+
+		try {
+			reader.join(JOIN_TIMEOUT);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+
+		closeRequests();
+	}
+
+	private void closeRequests() {
+		for (UsbRequest request : requests) {
+			if (request != null) {
+				request.close();
+			}
+		}
+	}
+
+	private class Reader implements Runnable {
+
+		@Override
+		public void run() {
+			int size = input.getMaxPacketSize();
+
+			synchronized (requests) {
+				for (UsbRequest request : requests) {
+					request.setClientData(ByteBuffer.allocate(size));
+
+					if (closed == false) {
+						request.queue((ByteBuffer)request.getClientData(), size);
+					}
+				}
+			}
+
+			byte[] bytes = new byte[size];
+			while (closed == false) {
+				UsbRequest request = connection.requestWait();
+				if (request == null || closed) {
+					// connection or transfer closed
+					break;
+				}
+
+				ByteBuffer buffer = (ByteBuffer)request.getClientData();
+				int length = buffer.position();
+				buffer.rewind();
+				buffer.get(bytes, 0, length);
+				buffer.clear();
+
+				ring.write(bytes, 0, length);
+
+				Thread consumer = UsbRequestTransfer.this.consumer;
+				if (consumer != null) {
+					LockSupport.unpark(consumer);
+				}
+
+				synchronized (requests) {
+					// never queue after cancel
+					if (closed == false) {
+						request.queue(buffer, size);
+					}
+				}
+			}
+		}
+	}
+}
@@ -60,6 +60,10 @@ public class UsbTransfer implements ITransfer {
 		connection.bulkTransfer(output, buffer, length, timeout);
 	}
 
+	@Override
+	public void close() {
+	}
+
 	public static int divisor(int baudrate) {
 		return 3000000 / baudrate;
 	}
@@ -26,7 +26,6 @@ import propoid.util.content.Preference;
 import svenmeier.coxswain.Gym;
 import svenmeier.coxswain.R;
 import svenmeier.coxswain.gym.Measurement;
-import svenmeier.coxswain.gym.Segment;
 
 /**
  */
@@ -125,6 +124,17 @@ public class BindingView extends LinearLayout {
         valueView.setValue(value);
     }
 
+    /**
+     * Update if the binding depends on any of the given changes.
+     *
+     * @see ValueBinding#changes
+     */
+    public void changed(Gym gym, PaceBoat paceBoat, int changes) {
+        if ((binding.changes & changes) != 0) {
+            changed(gym, paceBoat);
+        }
+    }
+
     public void changed(Gym gym, PaceBoat paceBoat) {
         int achieved = 0;
 
@@ -136,18 +146,17 @@ public class BindingView extends LinearLayout {
         int limitStrokeRate = 0;
         int limitPulse = 0;
 
-        if (gym.progress != null) {
-            achieved = gym.progress.achieved();
-
-            Segment segment = gym.progress.segment;
-
-            targetDuration = segment.duration.get();
-            targetDistance = segment.distance.get();
-            targetStrokes = segment.strokes.get();
-            targetEnergy = segment.energy.get();
-            limitSpeed = segment.speed.get();
-            limitStrokeRate = segment.strokeRate.get();
-            limitPulse = segment.pulse.get();
+        Gym.Progress progress = gym.progress;
+        if (progress != null) {
+            achieved = progress.achieved();
+
+            targetDuration = progress.getTarget(Measurement.DURATION);
+            targetDistance = progress.getTarget(Measurement.DISTANCE);
+            targetStrokes = progress.getTarget(Measurement.STROKES);
+            targetEnergy = progress.getTarget(Measurement.ENERGY);
+            limitSpeed = progress.getLimit(Measurement.SPEED);
+            limitStrokeRate = progress.getLimit(Measurement.STROKE_RATE);
+            limitPulse = progress.getLimit(Measurement.PULSE);
         }
 
         Measurement measurement = gym.measurement;
@@ -181,7 +190,7 @@ public class BindingView extends LinearLayout {
                 split(100f / measurement.speed);
                 break;
             case AVERAGE_SPLIT:
-                split(measurement.duration * 1f / measurement.distance);
+                split(measurement.getExactDuration() / measurement.distance);
                 break;
             case DELTA_DISTANCE:
                 delta(paceBoat.getDistanceDelta(measurement), false);
@@ -28,8 +28,8 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -37,7 +37,7 @@ import propoid.ui.list.MatchLookup;
 import propoid.util.content.Preference;
 import svenmeier.coxswain.Gym;
 import svenmeier.coxswain.R;
-import svenmeier.coxswain.gym.Workout;
+import svenmeier.coxswain.gym.Rollup;
 import svenmeier.coxswain.rower.Energy;
 
 
@@ -45,9 +45,31 @@ public class PerformanceFragment extends Fragment implements View.OnClickListene
 
     private Gym gym;
 
-    private List<Performance> pendings = new ArrayList<>();
+    /**
+     * Period of the cached performances.
+     */
+    private int period = -1;
 
-    private Map<String, Performance> performances = new HashMap<>();
+    /**
+     * Range of the cached performances.
+     */
+    private long loadedFrom;
+    private long loadedTo;
+
+    /**
+     * Cached performances by start of period.
+     */
+    private Map<Long, Performance> performances = new HashMap<>();
+
+    /**
+     * Maximum performances by period.
+     */
+    private Map<Integer, Performance> maxes = new HashMap<>();
+
+    /**
+     * Performance not loaded yet.
+     */
+    private Performance pending = new Performance();
 
     private int highlight;
 
@@ -102,33 +124,43 @@ public class PerformanceFragment extends Fragment implements View.OnClickListene
         timelineView.setWindow(windowPreference.get());
     }
 
-    private Performance getMax(Class<?> unit) {
-        String key = unit.getSimpleName();
-
-        Performance performancestic = this.performances.get(key);
-        if (performancestic == null) {
-            performancestic = new Performance();
+    private Performance getMax(int period) {
+        Performance max = this.maxes.get(period);
+        if (max == null) {
+            max = new Performance();
 
-            performances.put(key, performancestic);
+            maxes.put(period, max);
         }
 
-        return performancestic;
+        return max;
     }
 
-    private Performance getPerformance(Class<?> unit, long from, long to) {
-        String key = from + ":" + to;
+    private Performance getPerformance(int period, long from, long to) {
+        if (this.period != period) {
+            // evict all on change of unit
+            this.period = period;
+            this.loadedFrom = 0;
+            this.loadedTo = 0;
+            performances.clear();
+        }
 
-        Performance performance = this.performances.get(key);
+        Performance performance = this.performances.get(from);
         if (performance == null) {
-            performance = new Performance();
+            if (from >= loadedFrom && to <= loadedTo) {
+                // loaded without workouts
+                performance = new Performance();
+                performances.put(from, performance);
+            } else {
+                if (lookup == null) {
+                    // the whole window before and after
+                    long window = timelineView.getWindow();
 
-            performances.put(key, performance);
-            pendings.add(performance);
-        }
+                    lookup = new PerformanceLookup(period, from - window, to + window);
+                    lookup.restartLoader(0, this);
+                }
 
-        if (pendings.contains(performance) && lookup == null) {
-            lookup = new PerformanceLookup(from, to, performance, getMax(unit));
-            lookup.restartLoader(0, this);
+                return pending;
+            }
         }
 
         performance.animation = Math.min(performance.animation + 0.05f, 1.0f);
@@ -139,6 +171,16 @@ public class PerformanceFragment extends Fragment implements View.OnClickListene
         return performance;
     }
 
+    private int period(Class<?> unit) {
+        if (unit == TimelineView.MonthUnit.class) {
+            return Rollup.MONTH;
+        } else if (unit == TimelineView.WeekUnit.class) {
+            return Rollup.WEEK;
+        } else {
+            return Rollup.DAY;
+        }
+    }
+
     @Override
     public void onClick(View v) {
         highlight = (highlight + 1) % 4;
@@ -177,52 +219,77 @@ public class PerformanceFragment extends Fragment implements View.OnClickListene
         public int distance;
         public int strokes;
         public int energy;
+
+        public void reset() {
+            found = false;
+
+            duration = 0;
+            distance = 0;
+            strokes = 0;
+            energy = 0;
+        }
     }
 
-    private class PerformanceLookup extends MatchLookup<Workout> {
+    private class PerformanceLookup extends MatchLookup<Rollup> {
+
+        private final int period;
 
-        private final Performance pending;
+        private final long from;
 
-        private final Performance max;
+        private final long to;
 
-        public PerformanceLookup(long from, long to, Performance pending, Performance max) {
-            super(gym.getWorkouts(from, to));
+        public PerformanceLookup(int period, long from, long to) {
+            super(gym.getRollups(period, from, to));
 
-            this.pending = pending;
-            this.max = max;
+            this.period = period;
+            this.from = from;
+            this.to = to;
         }
 
         @Override
-        protected void onLookup(List<Workout> workouts) {
-            // reset in case the lookup is done twice
-            pending.distance = 0;
-            pending.strokes = 0;
-            pending.energy = 0;
-            pending.duration = 0;
-            pending.found = false;
-
-            for (Workout workout : workouts) {
-                pending.distance += workout.distance.get();
-                pending.strokes += workout.strokes.get();
-                pending.energy += workout.energy.get();
-                pending.duration += workout.duration.get();
-                pending.found = true;
-            }
+        protected void onLookup(List<Rollup> rollups) {
+            lookup = null;
 
-            max.distance = Math.max(max.distance, pending.distance);
-            max.strokes = Math.max(max.strokes, pending.strokes);
-            max.energy = Math.max(max.energy, pending.energy);
-            max.duration = Math.max(max.duration, pending.duration);
+            if (period == PerformanceFragment.this.period) {
+                // evict all outside of the loaded range
+                Iterator<Long> starts = performances.keySet().iterator();
+                while (starts.hasNext()) {
+                    long start = starts.next();
+                    if (start < from || start >= to) {
+                        starts.remove();
+                    }
+                }
+                for (Performance performance : performances.values()) {
+                    performance.reset();
+                }
+                loadedFrom = from;
+                loadedTo = to;
+
+                Performance max = getMax(period);
+                for (Rollup rollup : rollups) {
+                    Performance performance = performances.get(rollup.start.get());
+                    if (performance == null) {
+                        performance = new Performance();
+                        performances.put(rollup.start.get(), performance);
+                    }
+
+                    performance.distance += rollup.distance.get();
+                    performance.strokes += rollup.strokes.get();
+                    performance.energy += rollup.energy.get();
+                    performance.duration += rollup.duration.get();
+                    performance.found = true;
+
+                    max.distance = Math.max(max.distance, performance.distance);
+                    max.strokes = Math.max(max.strokes, performance.strokes);
+                    max.energy = Math.max(max.energy, performance.energy);
+                    max.duration = Math.max(max.duration, performance.duration);
+                }
+            }
 
             timelineView.postInvalidate();
 
-            // no longer pending
-            pendings.remove(pending);
-
-            lookup = null;
-
             // recover cursor
-            workouts.clear();
+            rollups.clear();
         }
     }
 
@@ -270,8 +337,9 @@ public class PerformanceFragment extends Fragment implements View.OnClickListene
 
         @Override
 		public void paint(Class<?> unit, long from, long to, Canvas canvas, RectF rect) {
-			Performance performance = getPerformance(unit, from, to);
-			Performance max = getMax(unit);
+			int period = period(unit);
+			Performance performance = getPerformance(period, from, to);
+			Performance max = getMax(period);
 
 			float headerHeight = paintHeader(from, to, canvas, rect, performance);
 
@@ -15,34 +15,33 @@
  */
 package svenmeier.coxswain.view;
 
+import svenmeier.coxswain.gym.Plan;
 import svenmeier.coxswain.gym.Program;
-import svenmeier.coxswain.gym.Segment;
 
 public class SegmentsData implements SegmentsView.Data {
 
     private final Program program;
 
+    private final Plan plan;
+
     public SegmentsData(Program program) {
         this.program = program;
+        this.plan = new Plan(program);
     }
 
     @Override
     public int length() {
-        return program.getSegmentsCount();
+        return plan.size();
     }
 
     @Override
     public float value(int index) {
-        return program.getSegment(index).asDuration();
+        return plan.getDuration(index);
     }
 
     @Override
     public float total() {
-        float value = 0;
-        for (Segment segment : program.segments.get()) {
-            value += segment.asDuration();
-        }
-        return value;
+        return plan.getDuration();
     }
 
     @Override
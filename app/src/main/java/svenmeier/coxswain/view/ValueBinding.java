@@ -1,32 +1,42 @@
 package svenmeier.coxswain.view;
 
+import svenmeier.coxswain.Gym;
 import svenmeier.coxswain.R;
+import svenmeier.coxswain.gym.Measurement;
 
 /**
  */
 public enum ValueBinding {
 
-	DURATION(R.string.duration_label, R.string.duration_pattern),
-	DURATION_SHORT(R.string.duration_label, R.string.duration_short_pattern),
-	DISTANCE(R.string.distance_label, R.string.distance_pattern),
-	STROKES(R.string.strokes_label, R.string.strokes_pattern),
-	ENERGY(R.string.energy_label, R.string.energy_pattern),
-	SPEED(R.string.speed_label, R.string.speed_pattern),
-	PULSE(R.string.pulse_label, R.string.pulse_pattern),
-	STROKE_RATE(R.string.strokeRate_label, R.string.strokeRate_pattern),
-	STROKE_RATIO(R.string.strokeRatio_label, R.string.strokeRatio_pattern),
-	TIME(R.string.time_label, R.string.time_pattern),
-	SPLIT(R.string.split_label, R.string.split_pattern),
-	AVERAGE_SPLIT(R.string.average_split_label, R.string.average_split_pattern),
-	DELTA_DURATION(R.string.delta_duration_label, R.string.delta_duration_pattern),
-	DELTA_DISTANCE(R.string.delta_distance_label, R.string.delta_distance_pattern),
-	NONE(R.string.none_label, R.string.none_pattern);
+	DURATION(R.string.duration_label, R.string.duration_pattern, Measurement.DURATION | Gym.PROGRESS),
+	DURATION_SHORT(R.string.duration_label, R.string.duration_short_pattern, Measurement.DURATION | Gym.PROGRESS),
+	DISTANCE(R.string.distance_label, R.string.distance_pattern, Measurement.DISTANCE | Gym.PROGRESS),
+	STROKES(R.string.strokes_label, R.string.strokes_pattern, Measurement.STROKES | Gym.PROGRESS),
+	ENERGY(R.string.energy_label, R.string.energy_pattern, Measurement.ENERGY | Gym.PROGRESS),
+	SPEED(R.string.speed_label, R.string.speed_pattern, Measurement.SPEED | Gym.PROGRESS),
+	PULSE(R.string.pulse_label, R.string.pulse_pattern, Measurement.PULSE | Gym.PROGRESS),
+	STROKE_RATE(R.string.strokeRate_label, R.string.strokeRate_pattern, Measurement.STROKE_RATE | Gym.PROGRESS),
+	STROKE_RATIO(R.string.strokeRatio_label, R.string.strokeRatio_pattern, Measurement.STROKE_RATIO),
+	TIME(R.string.time_label, R.string.time_pattern, 0),
+	SPLIT(R.string.split_label, R.string.split_pattern, Measurement.SPEED),
+	AVERAGE_SPLIT(R.string.average_split_label, R.string.average_split_pattern, Measurement.DURATION | Measurement.DISTANCE),
+	DELTA_DURATION(R.string.delta_duration_label, R.string.delta_duration_pattern, Measurement.DURATION | Measurement.DISTANCE | Gym.PACE),
+	DELTA_DISTANCE(R.string.delta_distance_label, R.string.delta_distance_pattern, Measurement.DURATION | Measurement.DISTANCE | Gym.PACE),
+	NONE(R.string.none_label, R.string.none_pattern, 0);
 
 	public final int label;
 	public final int pattern;
 
-	ValueBinding(int label, int pattern) {
+	/**
+	 * Changes this binding depends on.
+	 *
+	 * @see Gym.Listener#changed(int)
+	 */
+	public final int changes;
+
+	ValueBinding(int label, int pattern, int changes) {
 		this.label = label;
 		this.pattern = pattern;
+		this.changes = changes;
 	}
 }
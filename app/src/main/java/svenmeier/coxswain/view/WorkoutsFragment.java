@@ -172,9 +172,7 @@ public class WorkoutsFragment extends Fragment {
 
                                     return true;
                                 case R.id.action_evaluate:
-                                    item.evaluate.set(!item.evaluate.get());
-
-                                    gym.mergeWorkout(item);
+                                    gym.evaluate(item, !item.evaluate.get());
 
                                     return true;
                                 case R.id.action_export:
@@ -15,6 +15,7 @@ import java.util.List;
 
 import svenmeier.coxswain.gym.Program;
 import svenmeier.coxswain.gym.Snapshot;
+import svenmeier.coxswain.gym.SnapshotSeries;
 import svenmeier.coxswain.gym.Workout;
 
 import static org.junit.Assert.assertEquals;
@@ -42,7 +43,7 @@ public class Workout2TCXTest {
 
 		StringWriter writer = new StringWriter();
 
-		new Workout2TCX(writer).document(workout, snapshots);
+		new Workout2TCX(writer).document(workout, new SnapshotSeries(snapshots));
 
 		assertContent(getClass().getResourceAsStream("/empty.tcx"), writer.toString());
 	}
@@ -88,7 +89,7 @@ public class Workout2TCXTest {
 
 		StringWriter writer = new StringWriter();
 
-		new Workout2TCX(writer).document(workout, snapshots);
+		new Workout2TCX(writer).document(workout, new SnapshotSeries(snapshots));
 
 		assertContent(getClass().getResourceAsStream("/snapshots.tcx"), writer.toString());
 	}
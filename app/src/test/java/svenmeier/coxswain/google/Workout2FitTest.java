@@ -14,6 +14,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import svenmeier.coxswain.gym.Snapshot;
+import svenmeier.coxswain.gym.SnapshotSeries;
 import svenmeier.coxswain.gym.Workout;
 
 import static org.junit.Assert.assertEquals;
@@ -64,7 +65,7 @@ public class Workout2FitTest {
 
 		Workout2Fit workout2Fit = new Workout2Fit();
 		Session session = workout2Fit.session(workout);
-		for (DataSet dataSet : workout2Fit.dataSets(workout, snapshots)) {
+		for (DataSet dataSet : workout2Fit.dataSets(workout, new SnapshotSeries(snapshots))) {
 
 		}
 	}
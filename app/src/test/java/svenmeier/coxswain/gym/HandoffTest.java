@@ -0,0 +1,42 @@
+package svenmeier.coxswain.gym;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class HandoffTest {
+
+	@Test
+	public void conflate() {
+		Handoff handoff = new Handoff();
+
+		Measurement measurement = new Measurement();
+
+		measurement.distance = 1;
+		assertTrue(handoff.offer(measurement, Measurement.DISTANCE));
+
+		measurement.distance = 2;
+		measurement.duration = 1;
+		assertFalse(handoff.offer(measurement, Measurement.DISTANCE | Measurement.DURATION));
+
+		measurement.pulse = 80;
+		assertFalse(handoff.offer(measurement, Measurement.PULSE));
+		assertEquals(2, handoff.getMerged());
+
+		Measurement taken = new Measurement();
+		assertEquals(Measurement.DISTANCE | Measurement.DURATION | Measurement.PULSE, handoff.take(taken));
+		assertEquals(2, taken.distance);
+		assertEquals(1, taken.duration);
+		assertEquals(80, taken.pulse);
+
+		measurement.distance = 3;
+		assertTrue(handoff.offer(measurement, Measurement.DISTANCE));
+		assertEquals(Measurement.DISTANCE, handoff.take(taken));
+		assertEquals(3, taken.distance);
+		assertEquals(2, handoff.getMerged());
+	}
+}
@@ -0,0 +1,72 @@
+package svenmeier.coxswain.gym;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ */
+public class JournalTest {
+
+	@Test
+	public void recover() throws IOException {
+		File file = File.createTempFile("journal", null);
+		file.deleteOnExit();
+
+		Journal journal = new Journal(file);
+		journal.start(1000l, "Test Program");
+
+		Measurement measurement = new Measurement();
+		for (int s = 1; s <= 5000; s++) {
+			measurement.duration = s;
+			measurement.distance = s * 4;
+			measurement.pulse = 100 + s % 50;
+			journal.append(measurement);
+		}
+
+		// as if the process was killed
+		Journal.Recovery recovery = new Journal(file).recover();
+
+		assertEquals(1000l, recovery.start);
+		assertEquals("Test Program", recovery.programName);
+		assertEquals(5000, recovery.measurements.size());
+		assertEquals(5000, recovery.last().duration);
+		assertEquals(20000, recovery.last().distance);
+		assertEquals(100 + 4999 % 50, recovery.measurements.get(4998).pulse);
+		assertEquals(5000, recovery.snapshots().size());
+	}
+
+	@Test
+	public void commit() throws IOException {
+		File file = File.createTempFile("journal", null);
+		file.deleteOnExit();
+
+		Journal journal = new Journal(file);
+		journal.start(1000l, "Test Program");
+		journal.append(new Measurement());
+
+		journal.commit(2000l);
+		assertEquals(1, new Journal(file).recover().measurements.size());
+
+		journal.start(2000l, "Test Program");
+		assertNull(new Journal(file).recover());
+		journal.append(new Measurement());
+		journal.append(new Measurement());
+		assertEquals(2, new Journal(file).recover().measurements.size());
+
+		journal.commit(2000l);
+		assertNull(new Journal(file).recover());
+	}
+
+	@Test
+	public void empty() throws IOException {
+		File file = File.createTempFile("journal", null);
+		file.delete();
+
+		assertNull(new Journal(file).recover());
+	}
+}
@@ -0,0 +1,69 @@
+package svenmeier.coxswain.gym;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ */
+public class PlanTest {
+
+	@Test
+	public void compile() {
+		Program program = new Program("test");
+		program.getSegment(0).setDistance(1000);
+		program.addSegment(new Segment(Difficulty.HARD).setDuration(60).setStrokeRate(30));
+		program.addSegment(new Segment(Difficulty.EASY).setStrokes(100).setSpeed(400));
+		program.addSegment(new Segment(Difficulty.EASY).setEnergy(10).setPulse(120));
+
+		Plan plan = new Plan(program);
+
+		assertEquals(4, plan.size());
+
+		assertEquals(Measurement.DISTANCE, plan.getTargetKind(0));
+		assertEquals(1000, plan.getTarget(0));
+		assertEquals(Plan.NONE, plan.getLimitKind(0));
+		assertEquals(0, plan.getLimit(0));
+
+		assertEquals(Measurement.DURATION, plan.getTargetKind(1));
+		assertEquals(60, plan.getTarget(1));
+		assertEquals(Measurement.STROKE_RATE, plan.getLimitKind(1));
+		assertEquals(30, plan.getLimit(1));
+
+		assertEquals(Measurement.STROKES, plan.getTargetKind(2));
+		assertEquals(Measurement.SPEED, plan.getLimitKind(2));
+
+		assertEquals(Measurement.ENERGY, plan.getTargetKind(3));
+		assertEquals(Measurement.PULSE, plan.getLimitKind(3));
+
+		assertEquals(program.asDuration(), plan.getDuration());
+		for (int s = 0; s < plan.size(); s++) {
+			assertEquals(program.getSegment(s).asDuration(), plan.getDuration(s));
+		}
+	}
+
+	@Test
+	public void level() {
+		Program program = new Program("test");
+		program.getSegment(0).setDuration(100);
+		program.addSegment(new Segment(Difficulty.HARD).setDuration(300));
+
+		Plan plan = new Plan(program);
+
+		assertEquals(0f, plan.level(0, 0f), 0.001f);
+		assertEquals(0.125f, plan.level(0, 0.5f), 0.001f);
+		assertEquals(0.25f, plan.level(1, 0f), 0.001f);
+		assertEquals(1f, plan.level(1, 1f), 0.001f);
+	}
+
+	@Test
+	public void value() {
+		Measurement measurement = new Measurement();
+		measurement.distance = 100;
+		measurement.strokeRate = 24;
+
+		assertEquals(100, Plan.value(measurement, Measurement.DISTANCE));
+		assertEquals(24, Plan.value(measurement, Measurement.STROKE_RATE));
+		assertEquals(0, Plan.value(measurement, Plan.NONE));
+	}
+}
@@ -0,0 +1,63 @@
+package svenmeier.coxswain.gym;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class RollupTest {
+
+	@Test
+	public void start() {
+		Calendar calendar = Calendar.getInstance();
+		calendar.set(2016, Calendar.MARCH, 17, 18, 30, 15);
+		long time = calendar.getTimeInMillis();
+
+		calendar.setTimeInMillis(Rollup.start(Rollup.DAY, time));
+		assertEquals(17, calendar.get(Calendar.DAY_OF_MONTH));
+		assertEquals(0, calendar.get(Calendar.HOUR_OF_DAY));
+		assertEquals(0, calendar.get(Calendar.MILLISECOND));
+
+		calendar.setTimeInMillis(Rollup.start(Rollup.WEEK, time));
+		assertEquals(calendar.getFirstDayOfWeek(), calendar.get(Calendar.DAY_OF_WEEK));
+		assertTrue(Rollup.start(Rollup.WEEK, time) <= Rollup.start(Rollup.DAY, time));
+		assertTrue(Rollup.start(Rollup.WEEK, time) > Rollup.start(Rollup.DAY, time) - 7 * 24 * 60 * 60 * 1000L);
+
+		calendar.setTimeInMillis(Rollup.start(Rollup.MONTH, time));
+		assertEquals(Calendar.MARCH, calendar.get(Calendar.MONTH));
+		assertEquals(1, calendar.get(Calendar.DAY_OF_MONTH));
+		assertEquals(0, calendar.get(Calendar.HOUR_OF_DAY));
+	}
+
+	@Test
+	public void add() {
+		Workout workout = new Workout();
+		workout.duration.set(60);
+		workout.distance.set(250);
+		workout.strokes.set(25);
+		workout.energy.set(12);
+
+		Rollup rollup = new Rollup(Rollup.DAY, 0);
+		assertTrue(rollup.isEmpty());
+
+		rollup.add(workout, 1);
+		rollup.add(workout, 1);
+		assertFalse(rollup.isEmpty());
+		assertEquals(2, (int)rollup.count.get());
+		assertEquals(500, (int)rollup.distance.get());
+
+		rollup.add(workout, -1);
+		assertEquals(1, (int)rollup.count.get());
+		assertEquals(60, (int)rollup.duration.get());
+		assertEquals(25, (int)rollup.strokes.get());
+		assertEquals(12, (int)rollup.energy.get());
+
+		rollup.add(workout, -1);
+		assertTrue(rollup.isEmpty());
+	}
+}
@@ -0,0 +1,105 @@
+package svenmeier.coxswain.gym;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class SharedMeasurementTest {
+
+	private static final int WRITES = 20000;
+
+	@Test
+	public void concurrent() throws InterruptedException {
+		final SharedMeasurement shared = new SharedMeasurement();
+
+		final AtomicBoolean writing = new AtomicBoolean(true);
+		final AtomicInteger reads = new AtomicInteger();
+		final AtomicInteger inconsistent = new AtomicInteger();
+
+		Thread[] writers = new Thread[2];
+		for (int w = 0; w < writers.length; w++) {
+			final int offset = w * WRITES;
+			writers[w] = new Thread() {
+				@Override
+				public void run() {
+					Measurement measurement = new Measurement();
+					for (int i = 0; i < WRITES; i++) {
+						set(measurement, offset + i);
+
+						shared.write(measurement);
+					}
+				}
+			};
+		}
+
+		Thread[] readers = new Thread[2];
+		for (int r = 0; r < readers.length; r++) {
+			readers[r] = new Thread() {
+				@Override
+				public void run() {
+					Measurement measurement = new Measurement();
+					while (writing.get()) {
+						shared.read(measurement);
+
+						if (consistent(measurement) == false) {
+							inconsistent.incrementAndGet();
+						}
+						reads.incrementAndGet();
+					}
+				}
+			};
+		}
+
+		for (Thread reader : readers) {
+			reader.start();
+		}
+		for (Thread writer : writers) {
+			writer.start();
+		}
+		for (Thread writer : writers) {
+			writer.join();
+		}
+		writing.set(false);
+		for (Thread reader : readers) {
+			reader.join();
+		}
+
+		assertEquals(0, inconsistent.get());
+
+		Measurement last = new Measurement();
+		shared.read(last);
+		assertTrue(consistent(last));
+		assertTrue(last.duration == WRITES - 1 || last.duration == 2 * WRITES - 1);
+	}
+
+	private static void set(Measurement measurement, int value) {
+		measurement.duration = value;
+		measurement.distance = value;
+		measurement.strokes = value;
+		measurement.speed = value;
+		measurement.pulse = value;
+		measurement.strokeRate = value;
+		measurement.strokeRatio = value;
+		measurement.energy = value;
+		measurement.durationMillis = value;
+	}
+
+	private static boolean consistent(Measurement measurement) {
+		int value = measurement.duration;
+
+		return measurement.distance == value &&
+				measurement.strokes == value &&
+				measurement.speed == value &&
+				measurement.pulse == value &&
+				measurement.strokeRate == value &&
+				measurement.strokeRatio == value &&
+				measurement.energy == value &&
+				measurement.durationMillis == value;
+	}
+}
@@ -0,0 +1,126 @@
+package svenmeier.coxswain.gym;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class SnapshotCodecTest {
+
+	@Test
+	public void roundtrip() {
+		int count = 3600;
+
+		int[][] columns = new int[SnapshotCodec.COLUMNS][count];
+		for (int r = 0; r < count; r++) {
+			columns[SnapshotCodec.DISTANCE][r] = r * 4;
+			columns[SnapshotCodec.STROKES][r] = r / 2;
+			columns[SnapshotCodec.SPEED][r] = 400 + (r % 7) * 3 - 9;
+			columns[SnapshotCodec.PULSE][r] = 120 + r % 30;
+			columns[SnapshotCodec.STROKE_RATE][r] = 28;
+			columns[SnapshotCodec.STROKE_RATIO][r] = 15;
+			columns[SnapshotCodec.ENERGY][r] = r / 10;
+		}
+		columns[SnapshotCodec.SPEED][100] = Integer.MAX_VALUE;
+		columns[SnapshotCodec.SPEED][101] = Integer.MIN_VALUE;
+		columns[SnapshotCodec.PULSE][200] = -1;
+
+		byte[] data = SnapshotCodec.encode(columns, 0, count);
+
+		// a fraction of seven columns with four bytes each
+		assertTrue(data.length < count * 7 * 4 / 5);
+
+		assertEquals(count, SnapshotCodec.count(data));
+
+		int[][] decoded = new int[SnapshotCodec.COLUMNS][count + 10];
+		assertEquals(count, SnapshotCodec.decode(data, decoded, 10));
+
+		for (int c = 0; c < SnapshotCodec.COLUMNS; c++) {
+			for (int r = 0; r < count; r++) {
+				assertEquals(columns[c][r], decoded[c][10 + r]);
+			}
+		}
+	}
+
+	@Test
+	public void offset() {
+		int[][] columns = {{1, 2, 3, 4}, {5, 6, 7, 8}};
+
+		byte[] data = SnapshotCodec.encode(columns, 1, 2);
+
+		// fewer columns
+		int[][] decoded = new int[1][2];
+		assertEquals(2, SnapshotCodec.decode(data, decoded, 0));
+		assertArrayEquals(new int[]{2, 3}, decoded[0]);
+	}
+
+	@Test
+	public void chunks() {
+		List<Snapshot> snapshots = new ArrayList<>();
+		for (int s = 0; s < SnapshotChunk.SIZE * 2 + 10; s++) {
+			Snapshot snapshot = new Snapshot();
+			snapshot.distance.set(s * 3);
+			snapshots.add(snapshot);
+		}
+
+		List<SnapshotChunk> chunks = SnapshotChunk.split(null, snapshots);
+		assertEquals(3, chunks.size());
+		assertEquals(SnapshotChunk.SIZE * 2, (int)chunks.get(2).first.get());
+		assertEquals(10, (int)chunks.get(2).count.get());
+
+		int[][] columns = new int[SnapshotCodec.COLUMNS][snapshots.size()];
+		for (SnapshotChunk chunk : chunks) {
+			SnapshotCodec.decode(chunk.data.get(), columns, chunk.first.get());
+		}
+		for (int s = 0; s < snapshots.size(); s++) {
+			assertEquals(s * 3, columns[SnapshotCodec.DISTANCE][s]);
+		}
+	}
+
+	@Test
+	public void record() {
+		SnapshotChunk chunk = new SnapshotChunk(null, 0);
+
+		Measurement measurement = new Measurement();
+		while (chunk.isFull() == false) {
+			measurement.distance += 4;
+			measurement.pulse = 100 + measurement.distance % 3;
+			chunk.add(measurement);
+		}
+
+		int[][] columns = new int[SnapshotCodec.COLUMNS][SnapshotChunk.SIZE];
+		assertEquals(SnapshotChunk.SIZE, SnapshotCodec.decode(chunk.data.get(), columns, 0));
+		assertEquals(SnapshotChunk.SIZE * 4, columns[SnapshotCodec.DISTANCE][SnapshotChunk.SIZE - 1]);
+		assertEquals(100 + 8 % 3, columns[SnapshotCodec.PULSE][1]);
+	}
+
+	@Test
+	public void series() {
+		SnapshotChunk chunk = new SnapshotChunk(null, 0);
+
+		Measurement measurement = new Measurement();
+		for (int s = 0; s < 10; s++) {
+			measurement.distance += 4;
+			chunk.add(measurement);
+		}
+
+		List<SnapshotChunk> chunks = new ArrayList<>();
+		chunks.add(chunk);
+		SnapshotSeries series = SnapshotSeries.decode(chunks);
+
+		assertEquals(10, series.size());
+		assertEquals(9, series.time[9]);
+		assertEquals(40, series.distance[9]);
+
+		assertEquals(-1, series.indexOf(-1));
+		assertEquals(0, series.indexOf(0));
+		assertEquals(5, series.indexOf(5));
+		assertEquals(9, series.indexOf(100));
+	}
+}
@@ -0,0 +1,95 @@
+package svenmeier.coxswain.gym;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class SnapshotSeriesTest {
+
+	private SnapshotSeries workout(int seconds) {
+		SnapshotSeries series = new SnapshotSeries(seconds);
+
+		float distance = 0;
+		for (int s = 0; s < seconds; s++) {
+			series.speed[s] = 400 + (int)(50 * Math.sin(s * 2 * Math.PI / 60)) + (s % 7);
+			series.pulse[s] = 120 + s / 60;
+
+			distance += series.speed[s] / 100f;
+			series.distance[s] = (int)distance;
+		}
+		return series;
+	}
+
+	@Test
+	public void distanceAt() {
+		SnapshotSeries series = workout(10);
+
+		assertEquals(0, series.distanceAt(-1), 0.0f);
+		assertEquals(series.distance[0] / 2f, series.distanceAt(-0.5f), 0.01f);
+		assertEquals(series.distance[3], series.distanceAt(3), 0.0f);
+		assertEquals((series.distance[3] + series.distance[4]) / 2f, series.distanceAt(3.5f), 0.01f);
+		assertEquals(series.distance[9], series.distanceAt(20), 0.0f);
+
+		assertEquals(0, new SnapshotSeries(0).distanceAt(5), 0.0f);
+	}
+
+	@Test
+	public void downsample() {
+		SnapshotSeries series = workout(3600);
+
+		SnapshotSeries downsampled = series.downsample(10);
+
+		assertTrue(downsampled.size() <= 2 * 360 + 2);
+		assertEquals(0, downsampled.time[0]);
+		assertEquals(3599, downsampled.time[downsampled.size() - 1]);
+		assertEquals(series.distance[3599], downsampled.distance[downsampled.size() - 1]);
+
+		int min = Integer.MAX_VALUE;
+		int max = 0;
+		for (int index = 0; index < downsampled.size(); index++) {
+			min = Math.min(min, downsampled.speed[index]);
+			max = Math.max(max, downsampled.speed[index]);
+
+			if (index > 0) {
+				assertTrue(downsampled.time[index] > downsampled.time[index - 1]);
+				assertTrue(downsampled.time[index] - downsampled.time[index - 1] < 20);
+			}
+		}
+		Statistics statistics = new Statistics(190);
+		statistics.add(series);
+		Workout workout = new Workout();
+		statistics.apply(workout);
+		assertEquals((int)workout.speedMin.get(), min);
+		assertEquals((int)workout.speedMax.get(), max);
+
+		// pace boat stays within two meters
+		for (int s = 0; s < 3600; s++) {
+			assertEquals(series.distance[s], downsampled.distanceAt(s), 2.0f);
+		}
+	}
+
+	@Test
+	public void chunks() {
+		SnapshotSeries downsampled = workout(1000).downsample(10);
+
+		List<SnapshotChunk> chunks = SnapshotChunk.split(null, downsampled);
+		assertEquals(1, chunks.size());
+
+		List<SnapshotChunk> list = new ArrayList<>(chunks);
+		SnapshotSeries decoded = SnapshotSeries.decode(list);
+
+		assertEquals(downsampled.size(), decoded.size());
+		for (int index = 0; index < decoded.size(); index++) {
+			assertEquals(downsampled.time[index], decoded.time[index]);
+			assertEquals(downsampled.distance[index], decoded.distance[index]);
+			assertEquals(downsampled.speed[index], decoded.speed[index]);
+		}
+		assertEquals(decoded.size() - 1, decoded.indexOf(999));
+	}
+}
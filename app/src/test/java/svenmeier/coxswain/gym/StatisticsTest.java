@@ -0,0 +1,103 @@
+package svenmeier.coxswain.gym;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class StatisticsTest {
+
+	@Test
+	public void measurements() {
+		Statistics statistics = new Statistics(200);
+
+		Measurement measurement = new Measurement();
+		statistics.add(measurement);
+
+		measurement.speed = 400;
+		measurement.pulse = 110;
+		measurement.strokeRate = 24;
+		statistics.add(measurement);
+
+		measurement.speed = 500;
+		measurement.pulse = 150;
+		measurement.strokeRate = 30;
+		statistics.add(measurement);
+
+		measurement.pulse = 190;
+		statistics.add(measurement);
+
+		Workout workout = new Workout();
+		statistics.apply(workout);
+
+		assertEquals(400, (int)workout.speedMin.get());
+		assertEquals(0, (int)workout.speedFloor.get());
+		assertEquals(500, (int)workout.speedMax.get());
+		assertEquals(467, (int)workout.speedAverage.get());
+
+		assertEquals(110, (int)workout.pulseMin.get());
+		assertEquals(0, (int)workout.pulseFloor.get());
+		assertEquals(190, (int)workout.pulseMax.get());
+		assertEquals(150, (int)workout.pulseAverage.get());
+
+		assertEquals(24, (int)workout.strokeRateMin.get());
+		assertEquals(30, (int)workout.strokeRateMax.get());
+
+		assertEquals(0, (int)workout.strokeRatioMin.get());
+		assertEquals(0, (int)workout.strokeRatioAverage.get());
+
+		assertEquals(1, (int)workout.pulseZone1.get());
+		assertEquals(0, (int)workout.pulseZone2.get());
+		assertEquals(1, (int)workout.pulseZone3.get());
+		assertEquals(0, (int)workout.pulseZone4.get());
+		assertEquals(1, (int)workout.pulseZone5.get());
+	}
+
+	@Test
+	public void series() {
+		SnapshotSeries series = new SnapshotSeries(60);
+		for (int index = 0; index < series.size(); index++) {
+			series.speed[index] = 400 + index;
+		}
+
+		Statistics statistics = new Statistics(190);
+		statistics.add(series);
+
+		Workout workout = new Workout();
+		workout.distance.set(240);
+		assertFalse(workout.hasStatistics());
+
+		statistics.apply(workout);
+		assertTrue(workout.hasStatistics());
+		assertEquals(400, (int)workout.speedMin.get());
+		assertEquals(400, (int)workout.speedFloor.get());
+		assertEquals(459, (int)workout.speedMax.get());
+		assertEquals(430, (int)workout.speedAverage.get());
+	}
+
+	@Test
+	public void withoutSpeed() {
+		Workout workout = new Workout();
+		workout.distance.set(240);
+		assertFalse(workout.hasStatistics());
+
+		new Statistics(190).apply(workout);
+		assertTrue(workout.hasStatistics());
+		assertEquals(0, (int)workout.speedAverage.get());
+
+		assertTrue(new Workout(workout).hasStatistics());
+	}
+
+	@Test
+	public void zone() {
+		assertEquals(0, Statistics.zone(80, 190));
+		assertEquals(0, Statistics.zone(113, 190));
+		assertEquals(1, Statistics.zone(114, 190));
+		assertEquals(3, Statistics.zone(160, 190));
+		assertEquals(4, Statistics.zone(171, 190));
+		assertEquals(4, Statistics.zone(220, 190));
+	}
+}
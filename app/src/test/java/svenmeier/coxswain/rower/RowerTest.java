@@ -0,0 +1,77 @@
+package svenmeier.coxswain.rower;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import svenmeier.coxswain.gym.Measurement;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ */
+public class RowerTest {
+
+	@Test
+	public void publish() {
+		TestRower rower = new TestRower();
+
+		final List<Integer> changes = new ArrayList<>();
+		rower.setListener(new Rower.Listener() {
+			@Override
+			public void onChanged(Rower rower, int change) {
+				changes.add(change);
+			}
+		});
+
+		rower.publish();
+		assertEquals(1, changes.size());
+		assertEquals(Measurement.ALL, (int)changes.get(0));
+
+		rower.publish();
+		assertEquals(1, changes.size());
+
+		rower.distance = 10;
+		rower.pulse = 80;
+		rower.publish();
+		assertEquals(2, changes.size());
+		assertEquals(Measurement.DISTANCE | Measurement.PULSE, (int)changes.get(1));
+
+		rower.distance = 10;
+		rower.publish();
+		assertEquals(2, changes.size());
+
+		rower.reset();
+		rower.publish();
+		assertEquals(3, changes.size());
+		assertEquals(Measurement.ALL, (int)changes.get(2));
+	}
+
+	private class TestRower extends Rower {
+
+		@Override
+		public boolean open() {
+			return true;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public boolean row() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public String getName() {
+			return "Test";
+		}
+	}
+}
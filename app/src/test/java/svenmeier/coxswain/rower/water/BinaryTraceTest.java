@@ -0,0 +1,68 @@
+package svenmeier.coxswain.rower.water;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class BinaryTraceTest {
+
+	@Test
+	public void convert() throws IOException {
+		File file = File.createTempFile("binary", ".trace");
+
+		BinaryTrace trace = new BinaryTrace(file, 1024 * 1024, 0, false);
+		trace.comment("protocol 4");
+		trace.onOutput("USB");
+		trace.onInput(new AsciiSequence().set(new byte[]{'_', 'W', 'R', '_', '\r'}, 0, 4));
+		trace.close();
+
+		assertEquals(BinaryTrace.MAGIC.length + 3 * BinaryTrace.HEADER + 10 + 3 + 4, file.length());
+
+		StringBuilder text = new StringBuilder();
+		trace.convert(text);
+		assertEquals("#protocol 4\n>USB\n<_WR_\n", text.toString());
+
+		file.delete();
+	}
+
+	@Test
+	public void rotate() throws IOException {
+		File file = File.createTempFile("binary", ".trace");
+
+		BinaryTrace trace = new BinaryTrace(file, 100, 12, true);
+		StringBuilder expected = new StringBuilder();
+		for (int r = 0; r < 50; r++) {
+			String message = "IDD057" + (1000 + r);
+			trace.onInput(message);
+			expected.append('<').append(message).append('\n');
+		}
+		trace.close();
+
+		// four records per file
+		assertTrue(new File(file.getParentFile(), file.getName() + ".12").exists());
+		assertFalse(new File(file.getParentFile(), file.getName() + ".13").exists());
+
+		StringBuilder text = new StringBuilder();
+		trace.convert(text);
+		assertEquals(expected.toString(), text.toString());
+
+		StringBuilder last = new StringBuilder();
+		InputStream input = new FileInputStream(file);
+		BinaryTrace.convert(input, last);
+		input.close();
+		assertEquals("<IDD0571048\n<IDD0571049\n", last.toString());
+
+		for (int r = 0; r <= 12; r++) {
+			new File(file.getParentFile(), file.getName() + (r == 0 ? "" : "." + r)).delete();
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package svenmeier.coxswain.rower.water;
+
+import org.junit.Test;
+
+import svenmeier.coxswain.gym.Measurement;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ */
+public class DispatchTest {
+
+	private Dispatch dispatch = new Dispatch();
+
+	@Test
+	public void prefixes() {
+		Field p = new Field(null, "P");
+		Field ping = new Field(null, "PING");
+		Field ss = new Field(null, "SS");
+		Field se = new Field(null, "SE");
+		Field reset = new Field("RESET", null);
+
+		dispatch.add(p);
+		dispatch.add(ping);
+		dispatch.add(ss);
+		dispatch.add(se);
+		dispatch.add(reset);
+
+		assertSame(p, lookup("P"));
+		assertSame(ping, lookup("PING"));
+		assertSame(ss, lookup("SS"));
+		assertSame(se, lookup("SE"));
+		assertNull(lookup("S"));
+		assertNull(lookup("RESET"));
+		assertNull(lookup("\u00FF"));
+
+		dispatch.remove(ping);
+		assertSame(p, lookup("PING"));
+
+		dispatch.remove(p);
+		assertNull(lookup("PING"));
+	}
+
+	@Test
+	public void numbers() {
+		NumberField[] fields = new NumberField[0x1000];
+		for (int address = 0; address < fields.length; address++) {
+			fields[address] = new TestField(address, NumberField.SINGLE_BYTE);
+			dispatch.add(fields[address]);
+		}
+		NumberField distance = new TestField(0x057, NumberField.DOUBLE_BYTE);
+		dispatch.add(distance);
+		Field iv = new Field("IV?", "IV");
+		dispatch.add(iv);
+
+		assertSame(fields[0x000], lookup("IDS00001"));
+		assertSame(fields[0x1A9], lookup("IDS1A91C"));
+		assertSame(fields[0xFFF], lookup("IDSFFF01"));
+		assertSame(distance, lookup("IDD0570123"));
+		assertSame(iv, lookup("IV42020"));
+		assertNull(lookup("IDD1400123"));
+		assertNull(lookup("IDT1E1151515"));
+		assertNull(lookup("IDS1a91C"));
+		assertNull(lookup("IDS1A"));
+
+		dispatch.remove(distance);
+		assertNull(lookup("IDD0570123"));
+	}
+
+	private Field lookup(String message) {
+		byte[] buffer = new byte[message.length() + 2];
+		buffer[0] = '\n';
+		for (int b = 0; b < message.length(); b++) {
+			buffer[b + 1] = (byte)message.charAt(b);
+		}
+		buffer[buffer.length - 1] = '\r';
+
+		return dispatch.lookup(buffer, 1, buffer.length - 1);
+	}
+
+	private static class TestField extends NumberField {
+
+		TestField(int address, int size) {
+			super(address, size);
+		}
+
+		@Override
+		protected void onUpdate(int value, Measurement measurement) {
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package svenmeier.coxswain.rower.water;
+
+import org.junit.Test;
+
+import svenmeier.coxswain.gym.Measurement;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ */
+public class DurationCalculatorTest {
+
+	@Test
+	public void interpolate() {
+		DurationCalculator calculator = new DurationCalculator();
+		Measurement measurement = new Measurement();
+
+		calculator.seconds(measurement, 10, 1000);
+		assertEquals(10, measurement.duration);
+		assertEquals(10000, measurement.durationMillis);
+
+		calculator.hundredths(measurement, 20, 1000);
+		assertEquals(10200, measurement.durationMillis);
+
+		calculator.hundredths(measurement, 45, 1250);
+		assertEquals(10400, measurement.durationMillis);
+
+		// advancing with clock
+		calculator.update(measurement, 1500);
+		assertEquals(10700, measurement.durationMillis);
+
+		// but not beyond current second
+		calculator.update(measurement, 2500);
+		assertEquals(10900, measurement.durationMillis);
+		assertEquals(10, measurement.duration);
+
+		calculator.seconds(measurement, 11, 2500);
+		assertEquals(11, measurement.duration);
+		assertEquals(11700, measurement.durationMillis);
+	}
+
+	@Test
+	public void wrapped() {
+		DurationCalculator calculator = new DurationCalculator();
+		Measurement measurement = new Measurement();
+
+		calculator.seconds(measurement, 10, 1000);
+		calculator.hundredths(measurement, 80, 1000);
+		calculator.hundredths(measurement, 90, 1100);
+
+		// seconds register not yet received
+		calculator.hundredths(measurement, 5, 1250);
+		assertEquals(10900, measurement.durationMillis);
+
+		calculator.seconds(measurement, 11, 1300);
+		assertEquals(11100, measurement.durationMillis);
+	}
+
+	@Test
+	public void paused() {
+		DurationCalculator calculator = new DurationCalculator();
+		Measurement measurement = new Measurement();
+
+		calculator.seconds(measurement, 10, 1000);
+		calculator.hundredths(measurement, 20, 1000);
+		calculator.hundredths(measurement, 20, 1250);
+
+		calculator.update(measurement, 1900);
+		assertEquals(10200, measurement.durationMillis);
+	}
+}
@@ -0,0 +1,129 @@
+package svenmeier.coxswain.rower.water;
+
+import org.junit.Test;
+
+import svenmeier.coxswain.gym.Measurement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class FieldTest {
+
+	private static final String[] MESSAGES = {"_WR_", "IV42020", "IDT1E1151515", "IDD0570123", "IDS1A91C", "IDD14A00FF"};
+
+	@Test
+	public void numbers() {
+		for (String message : MESSAGES) {
+			for (int size = NumberField.SINGLE_BYTE; size <= NumberField.TRIPLE_BYTE; size++) {
+				TestField string = new TestField(0x1E1, size);
+				TestField bytes = new TestField(0x1E1, size);
+
+				assertBothPaths(message, string, bytes);
+
+				string = new TestField(0x057, size);
+				bytes = new TestField(0x057, size);
+
+				assertBothPaths(message, string, bytes);
+			}
+		}
+	}
+
+	@Test
+	public void offset() {
+		byte[] buffer = toBytes("IDD0570123\r\nIDS1A91C\r\n");
+
+		TestField distance = new TestField(0x057, NumberField.DOUBLE_BYTE);
+		assertFalse(distance.input(buffer, 12, 20, new Measurement()));
+		assertTrue(distance.input(buffer, 0, 10, new Measurement()));
+		assertEquals(0x0123, distance.value);
+
+		TestField strokeRate = new TestField(0x1A9, NumberField.SINGLE_BYTE);
+		assertTrue(strokeRate.input(buffer, 12, 20, new Measurement()));
+		assertEquals(0x1C, strokeRate.value);
+	}
+
+	@Test
+	public void digits() {
+		TestField distance = new TestField(0x057, NumberField.DOUBLE_BYTE);
+
+		assertFalse(distance.input("IDD057012", new Measurement()));
+		assertFalse(distance.input("IDD05701234", new Measurement()));
+		assertTrue(distance.input("IDD0570123", new Measurement()));
+
+		byte[] buffer = toBytes("IDD057012");
+		assertFalse(distance.input(buffer, 0, buffer.length, new Measurement()));
+	}
+
+	@Test
+	public void prefix() {
+		byte[] buffer = toBytes("SS");
+
+		assertTrue(new Field(null, "SS").input(buffer, 0, 2, new Measurement()));
+		assertFalse(new Field(null, "SE").input(buffer, 0, 2, new Measurement()));
+		assertFalse(new Field(null, "SS").input(buffer, 0, 1, new Measurement()));
+		assertFalse(new Field("USB", null).input(buffer, 0, 2, new Measurement()));
+	}
+
+	@Test
+	public void strings() {
+		assertString(0x12, "IDD1400012", new TestField(0x140, NumberField.DOUBLE_BYTE));
+		assertString(0x0123, "IDD0570123", new TestField(0x057, NumberField.DOUBLE_BYTE));
+		assertString(0x64, "IDD14A0064", new TestField(0x14A, NumberField.DOUBLE_BYTE));
+		assertString(0x1C, "IDS1A91C", new TestField(0x1A9, NumberField.SINGLE_BYTE));
+		assertString(0x400, "IDT08A000400", new TestField(0x08A, NumberField.TRIPLE_BYTE));
+
+		TestField strokes = new TestField(0x140, NumberField.DOUBLE_BYTE);
+		assertFalse(strokes.input("IDD0570123", new Measurement()));
+		assertEquals(-1, strokes.value);
+
+		assertTrue(new Field(null, "SS").input("SS", new Measurement()));
+		assertFalse(new Field(null, "SE").input("SS", new Measurement()));
+		assertFalse(new Field("USB", null).input("SS", new Measurement()));
+	}
+
+	private void assertString(int value, String message, TestField field) {
+		assertTrue(field.input(message, new Measurement()));
+		assertEquals(value, field.value);
+
+		assertBothPaths(message, new TestField(field), new TestField(field));
+	}
+
+	private void assertBothPaths(String message, TestField string, TestField bytes) {
+		byte[] buffer = toBytes(" " + message + " ");
+
+		boolean stringMatched = string.input(message, new Measurement());
+		boolean bytesMatched = bytes.input(buffer, 1, buffer.length - 1, new Measurement());
+
+		assertEquals(stringMatched, bytesMatched);
+		assertEquals(string.value, bytes.value);
+	}
+
+	private byte[] toBytes(String string) {
+		byte[] bytes = new byte[string.length()];
+		for (int b = 0; b < bytes.length; b++) {
+			bytes[b] = (byte)string.charAt(b);
+		}
+		return bytes;
+	}
+
+	private static class TestField extends NumberField {
+
+		int value = -1;
+
+		TestField(int address, int size) {
+			super(address, size);
+		}
+
+		TestField(TestField other) {
+			this(other.address, other.size);
+		}
+
+		@Override
+		protected void onUpdate(int value, Measurement measurement) {
+			this.value = value;
+		}
+	}
+}
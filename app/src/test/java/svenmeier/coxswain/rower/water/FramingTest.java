@@ -0,0 +1,84 @@
+package svenmeier.coxswain.rower.water;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class FramingTest {
+
+	private Framing framing = new Framing(16, 16);
+
+	@Test
+	public void lines() {
+		append("SS\r\nSE\r\n");
+
+		assertNext("SS");
+		assertNext("SE");
+		assertFalse(framing.next());
+
+		assertEquals(0, framing.getBroken());
+	}
+
+	@Test
+	public void split() {
+		append("IDD057");
+		assertFalse(framing.next());
+
+		append("0123\r");
+		assertNext("IDD0570123");
+		assertFalse(framing.next());
+
+		append("\nIDS1A");
+		assertFalse(framing.next());
+
+		append("91C\r\nP");
+		assertNext("IDS1A91C");
+		assertFalse(framing.next());
+
+		append("\r\n");
+		assertNext("P");
+
+		assertEquals(0, framing.getBroken());
+	}
+
+	@Test
+	public void broken() {
+		append("ID\u0000D0\r\nSS\r\n");
+		assertNext("SS");
+		assertEquals(1, framing.getBroken());
+
+		append("0123456789ABCDEF");
+		append("0123456789ABCDEF");
+		append("\r\nSE\r\n");
+		assertNext("SE");
+		assertEquals(2, framing.getBroken());
+	}
+
+	@Test
+	public void clear() {
+		append("IDD057");
+		framing.clear();
+
+		append("\r\nSS\r\n");
+		assertNext("SS");
+		assertFalse(framing.next());
+	}
+
+	private void append(String string) {
+		byte[] bytes = new byte[string.length()];
+		for (int b = 0; b < bytes.length; b++) {
+			bytes[b] = (byte)string.charAt(b);
+		}
+		framing.append(bytes, bytes.length);
+	}
+
+	private void assertNext(String line) {
+		assertTrue(framing.next());
+
+		assertEquals(line, AsciiSequence.toString(framing.buffer(), framing.start(), framing.end()));
+	}
+}
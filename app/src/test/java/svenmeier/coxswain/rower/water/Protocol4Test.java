@@ -1,11 +1,15 @@
 package svenmeier.coxswain.rower.water;
 
 import org.junit.Test;
+import java.util.HashMap;
+import java.util.Map;
 
 import svenmeier.coxswain.gym.Measurement;
 import svenmeier.coxswain.rower.water.usb.ITransfer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  */
@@ -47,4 +51,227 @@ public class Protocol4Test {
 
 		assertEquals("#protocol 4>USB<_WR_#handshake complete>IV?<IV42020#version 42020>IRD140<IDT1E1151515>IRD057", trace.toString());
 	}
+
+	@Test
+	public void split() throws Exception {
+		TestTransfer transfer = new TestTransfer();
+		TestTrace trace = new TestTrace();
+
+		Protocol4 protocol = new Protocol4(transfer, trace);
+		protocol.setOutputThrottle(0);
+
+		protocol.transfer(measurement);
+		transfer.assertOutput("USB\r\n");
+
+		transfer.setupInput("_WR_\r\nIDD05");
+		protocol.transfer(measurement);
+		transfer.assertOutput("IV?\r\n");
+
+		transfer.setupInput("70123\r\nID\u0000\r\n");
+		protocol.transfer(measurement);
+		assertEquals(0x0123, measurement.distance);
+		assertEquals(1, protocol.getBrokenMessages());
+
+		assertEquals("#protocol 4>USB<_WR_#handshake complete>IV?<IDD0570123#broken>IRD140", trace.toString());
+	}
+
+	@Test
+	public void schedule() throws Exception {
+		TestTransfer transfer = new TestTransfer();
+		TestTrace trace = new TestTrace();
+
+		Protocol4 protocol = new Protocol4(transfer, trace);
+
+		long now = handshake(protocol, transfer, 1000);
+
+		Map<String, Integer> counts = new HashMap<>();
+		for (long end = now + 10000; now < end; now += 5) {
+			protocol.transfer(measurement, now);
+
+			String output = transfer.takeOutput();
+			if (output.length() > 0) {
+				String request = output.trim();
+
+				Integer count = counts.get(request);
+				counts.put(request, count == null ? 1 : count + 1);
+
+				// respond immediately
+				String value = request.startsWith("IRS") ? "00" : (request.startsWith("IRD") ? "0000" : "000000");
+				transfer.setupInput("ID" + request.substring(2) + value + "\r\n");
+			}
+		}
+
+		// fast
+		assertTrue(counts.get("IRD057") >= 80);
+		assertTrue(counts.get("IRD14A") >= 80);
+		// medium
+		assertTrue(counts.get("IRS1A9") >= 36);
+		assertTrue(counts.get("IRS1A9") <= 41);
+		// slow
+		assertTrue(counts.get("IRT08A") >= 9);
+		assertTrue(counts.get("IRT08A") <= 11);
+
+		assertEquals(0, protocol.getOutstanding());
+	}
+
+	@Test
+	public void backoff() throws Exception {
+		TestTransfer transfer = new TestTransfer();
+		TestTrace trace = new TestTrace();
+
+		Protocol4 protocol = new Protocol4(transfer, trace);
+
+		long now = handshake(protocol, transfer, 1000);
+
+		int outputs = 0;
+		for (long end = now + 400; now < end; now += 5) {
+			protocol.transfer(measurement, now);
+
+			if (transfer.takeOutput().length() > 0) {
+				outputs++;
+			}
+		}
+
+		// no responses, so no more output
+		assertEquals(1, outputs);
+		assertEquals(2, protocol.getOutstanding());
+
+		now += 200;
+		protocol.transfer(measurement, now);
+
+		// timed out and continuing
+		assertEquals("IRD14A\r\n", transfer.takeOutput());
+		assertEquals(1, protocol.getOutstanding());
+		assertTrue(trace.toString().endsWith(">IRD140>IRD057#timeout#timeout>IRD14A"));
+
+		// throttle backed off
+		now += 50;
+		protocol.transfer(measurement, now);
+		assertEquals("", transfer.takeOutput());
+
+		now += 50;
+		protocol.transfer(measurement, now);
+		assertEquals("IRS1A9\r\n", transfer.takeOutput());
+	}
+
+	@Test
+	public void pipeline() throws Exception {
+		TestTransfer transfer = new TestTransfer();
+		TestTrace trace = new TestTrace();
+
+		Protocol4 protocol = new Protocol4(transfer, trace);
+		protocol.setPipeline(4);
+
+		long now = 1000;
+		protocol.transfer(measurement, now);
+		transfer.assertOutput("USB\r\n");
+
+		now += 25;
+		transfer.setupInput("_WR_\r\n");
+		protocol.transfer(measurement, now);
+		transfer.assertOutput("IV?\r\nIRD140\r\nIRD057\r\nIRD14A\r\n");
+		assertEquals(2, transfer.outputs);
+		assertEquals(4, protocol.getOutstanding());
+
+		// responses in different order, strokes missing
+		now += 25;
+		transfer.setupInput("IDD14A0064\r\nIV42020\r\nIDD0570123\r\n");
+		protocol.transfer(measurement, now);
+		transfer.assertOutput("IRS1A9\r\nIRS1A0\r\nIRT08A\r\nIRS1E0\r\n");
+		assertEquals(3, transfer.outputs);
+		assertEquals(5, protocol.getOutstanding());
+
+		assertEquals("42020", protocol.getVersion());
+		assertEquals(0x0123, measurement.distance);
+		assertEquals(0x0064, measurement.speed);
+
+		// all timed out, strokes is requested again
+		now += 600;
+		protocol.transfer(measurement, now);
+		String output = transfer.takeOutput();
+		assertTrue(output.contains("IRD140\r\n"));
+		assertFalse(output.contains("IV?"));
+		assertEquals(4, output.split("\r\n").length);
+		assertEquals(4, transfer.outputs);
+	}
+
+	@Test
+	public void handshakeResent() throws Exception {
+		TestTransfer transfer = new TestTransfer();
+		TestTrace trace = new TestTrace();
+
+		Protocol4 protocol = new Protocol4(transfer, trace);
+
+		long now = 1000;
+		protocol.transfer(measurement, now);
+		transfer.assertOutput("USB\r\n");
+
+		now += 100;
+		protocol.transfer(measurement, now);
+		assertEquals("", transfer.takeOutput());
+
+		now += 500;
+		protocol.transfer(measurement, now);
+		transfer.assertOutput("USB\r\n");
+
+		assertEquals("#protocol 4>USB#timeout>USB", trace.toString());
+	}
+
+	@Test
+	public void fields() throws Exception {
+		TestTransfer transfer = new TestTransfer();
+		TestTrace trace = new TestTrace();
+
+		Protocol4 protocol = new Protocol4(transfer, trace);
+
+		long now = handshake(protocol, transfer, 1000);
+
+		transfer.setupInput("IDD1400012\r\nIDD0570123\r\nIDD14A0064\r\nIDS1A91C\r\nIDT08A000400\r\nIDT1E1012345\r\n");
+		protocol.transfer(measurement, now);
+
+		assertEquals(0x12, measurement.strokes);
+		assertEquals(0x0123, measurement.distance);
+		assertEquals(0x64, measurement.speed);
+		assertEquals(0x1C, measurement.strokeRate);
+		assertEquals(protocol.energyCalculator.energy(0x400), measurement.energy);
+		assertEquals((1 * 60 + 23) * 60 + 45, measurement.duration);
+	}
+
+	@Test
+	public void resetDropsPartialInput() throws Exception {
+		TestTransfer transfer = new TestTransfer();
+		TestTrace trace = new TestTrace();
+
+		Protocol4 protocol = new Protocol4(transfer, trace);
+
+		long now = handshake(protocol, transfer, 1000);
+
+		transfer.setupInput("IDD05701");
+		protocol.transfer(measurement, now);
+
+		protocol.reset();
+
+		transfer.setupInput("IDS1A91C\r\n");
+		protocol.transfer(measurement, now + 25);
+
+		assertEquals(0x1C, measurement.strokeRate);
+		assertEquals(0, protocol.getBrokenMessages());
+	}
+
+	private long handshake(Protocol4 protocol, TestTransfer transfer, long now) {
+		protocol.transfer(measurement, now);
+		transfer.assertOutput("USB\r\n");
+
+		now += 25;
+		transfer.setupInput("_WR_\r\n");
+		protocol.transfer(measurement, now);
+		transfer.assertOutput("IV?\r\n");
+
+		now += 25;
+		transfer.setupInput("IV42020\r\n");
+		protocol.transfer(measurement, now);
+		transfer.assertOutput("IRD140\r\n");
+
+		return now + 25;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package svenmeier.coxswain.rower.water;
+
+import org.junit.Test;
+
+import svenmeier.coxswain.rower.water.usb.RingBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ */
+public class RingBufferTest {
+
+	@Test
+	public void wrap() {
+		RingBuffer ring = new RingBuffer(8);
+
+		byte[] bytes = new byte[]{1, 2, 3, 4, 5, 6};
+		byte[] read = new byte[8];
+
+		assertEquals(6, ring.write(bytes, 0, 6));
+		assertEquals(4, ring.read(read, 0, 4));
+		assertEquals(2, ring.available());
+
+		assertEquals(6, ring.write(bytes, 0, 6));
+		assertEquals(8, ring.available());
+
+		assertEquals(8, ring.read(read, 0, 8));
+		assertEquals(5, read[0]);
+		assertEquals(6, read[1]);
+		assertEquals(1, read[2]);
+		assertEquals(6, read[7]);
+
+		assertEquals(0, ring.read(read, 0, 8));
+	}
+
+	@Test
+	public void overflow() {
+		RingBuffer ring = new RingBuffer(4);
+
+		assertEquals(4, ring.write(new byte[]{1, 2, 3, 4, 5, 6}, 0, 6));
+		assertEquals(2, ring.getOverflow());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void capacity() {
+		new RingBuffer(10);
+	}
+
+	@Test
+	public void concurrent() throws Exception {
+		final RingBuffer ring = new RingBuffer(16);
+		final int count = 100000;
+
+		Thread producer = new Thread() {
+			@Override
+			public void run() {
+				byte[] bytes = new byte[3];
+				int next = 0;
+				while (next < count) {
+					int length = Math.min(bytes.length, count - next);
+					for (int b = 0; b < length; b++) {
+						bytes[b] = (byte)(next + b);
+					}
+
+					int written = ring.write(bytes, 0, length);
+					next += written;
+				}
+			}
+		};
+		producer.start();
+
+		byte[] bytes = new byte[5];
+		int next = 0;
+		while (next < count) {
+			int read = ring.read(bytes, 0, bytes.length);
+			for (int b = 0; b < read; b++) {
+				assertEquals((byte)next, bytes[b]);
+				next++;
+			}
+		}
+
+		producer.join();
+	}
+}
@@ -0,0 +1,105 @@
+package svenmeier.coxswain.rower.water;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import svenmeier.coxswain.gym.Measurement;
+import svenmeier.coxswain.gym.Stroke;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class S4EmulatorTest {
+
+	private long now = 1000000;
+
+	private Measurement measurement = new Measurement();
+
+	private S4Emulator.Model model = new S4Emulator.Model();
+
+	private S4Emulator emulator = new S4Emulator(model) {
+		@Override
+		protected long now() {
+			return now;
+		}
+	};
+
+	@Test
+	public void realistic() {
+		model.pulse = 120;
+
+		Protocol4 protocol = new Protocol4(emulator, new NullTrace());
+
+		final List<Stroke> strokes = new ArrayList<>();
+		protocol.strokeCalculator.setListener(new StrokeCalculator.Listener() {
+			@Override
+			public void onStroke(Stroke stroke) {
+				strokes.add(stroke);
+			}
+		});
+
+		row(protocol, 10 * 60 * 1000, 5);
+
+		assertEquals("40210", protocol.getVersion());
+
+		assertEquals(600, measurement.duration, 1);
+		assertEquals(model.distance(600000), measurement.distance, 2);
+		assertEquals(model.strokes(600000), measurement.strokes, 1);
+		assertEquals(model.speed, measurement.speed);
+		assertEquals(model.strokeRate, measurement.strokeRate);
+		assertEquals(model.pulse, measurement.pulse);
+
+		assertEquals(0, protocol.getBrokenMessages());
+		assertEquals(1, emulator.getRequests("USB"));
+
+		assertEquals(600000, measurement.durationMillis, 1000);
+		assertEquals(model.strokes(600000), strokes.size(), 2);
+		Stroke stroke = strokes.get(strokes.size() / 2);
+		assertEquals(60000 / model.strokeRate, stroke.recoveryEnd.get() - stroke.driveStart.get(), 10);
+		assertTrue(stroke.getDrive() > 0);
+		assertTrue(stroke.getRecovery() > stroke.getDrive());
+		assertTrue(stroke.peakSpeed.get() >= model.speed);
+	}
+
+	@Test
+	public void faults() {
+		emulator.setLatency(30).setDropRate(0.001).setPacketSize(7);
+
+		Protocol4 protocol = new Protocol4(emulator, new NullTrace());
+
+		row(protocol, 10 * 60 * 1000, 5);
+
+		assertEquals(600, measurement.duration, 1);
+		assertEquals(model.distance(600000), measurement.distance, 2);
+		assertEquals(model.strokes(600000), measurement.strokes, 1);
+
+		assertTrue(protocol.getBrokenMessages() > 0);
+	}
+
+	@Test
+	public void extreme() {
+		Protocol4 protocol = new Protocol4(emulator, new NullTrace());
+		protocol.setOutputThrottle(0);
+		protocol.setPipeline(4);
+
+		row(protocol, 60 * 1000, 1);
+
+		// as often as scheduled
+		assertEquals(600, emulator.getRequests("IRD057"), 10);
+		assertEquals(60, emulator.getRequests("IRT08A"), 2);
+
+		assertEquals(0, protocol.getBrokenMessages());
+	}
+
+	private void row(Protocol4 protocol, long duration, long step) {
+		for (long end = now + duration; now < end; now += step) {
+			protocol.transfer(measurement, now);
+		}
+		// final responses
+		protocol.transfer(measurement, now);
+	}
+}
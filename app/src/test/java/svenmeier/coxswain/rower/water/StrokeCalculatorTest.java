@@ -0,0 +1,73 @@
+package svenmeier.coxswain.rower.water;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import svenmeier.coxswain.gym.Measurement;
+import svenmeier.coxswain.gym.Stroke;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ */
+public class StrokeCalculatorTest {
+
+	@Test
+	public void strokes() {
+		StrokeCalculator calculator = new StrokeCalculator();
+
+		final List<Stroke> strokes = new ArrayList<>();
+		calculator.setListener(new StrokeCalculator.Listener() {
+			@Override
+			public void onStroke(Stroke stroke) {
+				strokes.add(stroke);
+			}
+		});
+
+		Measurement measurement = new Measurement();
+
+		// recovery without drive is ignored
+		calculator.recovering(measurement, 500);
+
+		measurement.durationMillis = 1000;
+		measurement.distance = 10;
+		measurement.speed = 200;
+		calculator.pulling(measurement, 10000);
+
+		measurement.speed = 450;
+		calculator.update(measurement);
+		measurement.speed = 400;
+		calculator.update(measurement);
+
+		// repeated start of drive is ignored
+		calculator.pulling(measurement, 10100);
+
+		calculator.recovering(measurement, 10850);
+
+		// not within drive
+		measurement.speed = 500;
+		calculator.update(measurement);
+		assertEquals(0, strokes.size());
+
+		measurement.durationMillis = 3000;
+		measurement.distance = 19;
+		calculator.pulling(measurement, 12020);
+
+		assertEquals(1, strokes.size());
+		Stroke stroke = strokes.get(0);
+		assertEquals(1000, (int)stroke.driveStart.get());
+		assertEquals(1850, (int)stroke.driveEnd.get());
+		assertEquals(3020, (int)stroke.recoveryEnd.get());
+		assertEquals(9, (int)stroke.distance.get());
+		assertEquals(450, (int)stroke.peakSpeed.get());
+		assertEquals(850, stroke.getDrive());
+		assertEquals(1170, stroke.getRecovery());
+
+		calculator.clear();
+
+		calculator.pulling(measurement, 13000);
+		assertEquals(1, strokes.size());
+	}
+}
@@ -10,6 +10,7 @@ class TestTransfer implements ITransfer {
 
 	public int baudrate;
 	public int length = 0;
+	public int outputs = 0;
 	public int dataBits;
 	public int parity;
 	public int stopBits;
@@ -58,6 +59,17 @@ class TestTransfer implements ITransfer {
 		this.length = 0;
 	}
 
+	public String takeOutput() {
+		StringBuilder output = new StringBuilder();
+		for (int b = 0; b < this.length; b++) {
+			output.append((char)this.buffer[b]);
+		}
+
+		this.length = 0;
+
+		return output.toString();
+	}
+
 	public void assertOutput(byte[] buffer) {
 		assertEquals(buffer.length, this.length);
 
@@ -85,5 +97,11 @@ class TestTransfer implements ITransfer {
 	@Override
 	public void bulkOutput(int length) {
 		this.length = length;
+
+		this.outputs++;
+	}
+
+	@Override
+	public void close() {
 	}
 }
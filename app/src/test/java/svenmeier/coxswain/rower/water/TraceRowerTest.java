@@ -0,0 +1,112 @@
+package svenmeier.coxswain.rower.water;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class TraceRowerTest {
+
+	@Test
+	public void text() throws IOException {
+		TraceRower rower = new TraceRower(null, 10000);
+		rower.open(getClass().getResourceAsStream("/waterrower.trace"));
+		rower.reset();
+
+		while (rower.row()) {
+		}
+		rower.close();
+
+		assertEquals(363, rower.strokes);
+		assertEquals(1510, rower.distance);
+	}
+
+	@Test
+	public void binary() throws Exception {
+		File file = File.createTempFile("replay", ".trace");
+
+		BinaryTrace trace = new BinaryTrace(file, 1024 * 1024, 0, false);
+		trace.comment(TraceTransfer.PROTOCOL_4);
+		trace.onOutput("USB");
+		trace.onInput("_WR_");
+		for (int distance = 1; distance <= 10; distance++) {
+			Thread.sleep(20);
+			trace.onInput(String.format("IDD057%04X", distance));
+		}
+		trace.close();
+
+		TraceRower rower = new TraceRower(file, 4);
+		assertTrue(rower.open());
+		rower.reset();
+
+		long start = System.nanoTime();
+		int distance = 0;
+		while (rower.row()) {
+			// distance increases gradually
+			assertTrue(rower.distance >= distance);
+			distance = rower.distance;
+		}
+		long duration = (System.nanoTime() - start) / 1000000;
+		rower.close();
+
+		assertEquals(10, rower.distance);
+		// 200 milliseconds recorded
+		assertTrue(duration >= 40);
+		assertTrue(duration < 150);
+
+		assertFalse(rower.isOpen());
+
+		file.delete();
+	}
+
+	@Test
+	public void protocol() throws IOException {
+		TraceTransfer transfer = new TraceTransfer(TraceReader.open(getClass().getResourceAsStream("/waterrower.trace")), 10000);
+
+		assertEquals(TraceTransfer.PROTOCOL_3, transfer.getProtocol());
+		assertFalse(transfer.isFinished());
+
+		transfer.setTimeout(100);
+		assertEquals(1, transfer.bulkInput());
+		assertEquals(0x01, transfer.buffer()[0]);
+	}
+
+	@Test
+	public void oversized() throws Exception {
+		File file = File.createTempFile("replay", ".trace");
+
+		StringBuilder message = new StringBuilder();
+		for (int c = 0; c < 600; c++) {
+			message.append((char)('A' + (c % 26)));
+		}
+
+		BinaryTrace trace = new BinaryTrace(file, 1024 * 1024, 0, false);
+		trace.comment(TraceTransfer.PROTOCOL_4);
+		trace.onInput(message.toString());
+		trace.onInput("_WR_");
+		trace.close();
+
+		TraceTransfer transfer = new TraceTransfer(TraceReader.open(new FileInputStream(file)), 10000);
+		transfer.setTimeout(100);
+
+		StringBuilder replayed = new StringBuilder();
+		while (transfer.isFinished() == false) {
+			int length = transfer.bulkInput();
+			for (int b = 0; b < length; b++) {
+				replayed.append((char)transfer.buffer()[b]);
+			}
+		}
+		transfer.close();
+
+		assertEquals(message + "\r\n_WR_\r\n", replayed.toString());
+
+		file.delete();
+	}
+}